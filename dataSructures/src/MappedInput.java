@@ -0,0 +1,85 @@
+package src;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only view of a file through {@code FileChannel} mappings. The file is
+ * mapped one window at a time, so files larger than 2 GB can be read by
+ * choosing a window smaller than {@code Integer.MAX_VALUE}. Bytes are served
+ * straight from the page cache.
+ */
+class MappedInput extends WindowedInput {
+
+   // smallest window: every window is a new mapping, and the old ones are only
+   // released when the garbage collector finds them
+   static final int MIN_WINDOW = 1 << 16;
+
+   private final FileChannel channel;
+   private final long size;
+   private final int windowSize;
+   private long mappedUpTo = 0;
+   private MappedByteBuffer current = null;
+
+   MappedInput(String fileName) throws IOException {
+      this(fileName, 0);
+   }
+
+   /**
+    * @param fileName   file to be mapped
+    * @param windowSize bytes mapped at a time, rounded up to a multiple of
+    *                   {@code MIN_WINDOW}, or 0 to map the whole file at once
+    * @throws IllegalArgumentException if the window size is negative or below
+    *                                  {@code MIN_WINDOW}
+    * @throws IOException              if the file can not be opened, or it is
+    *                                  larger than 2 GB and no window size was
+    *                                  given
+    */
+   MappedInput(String fileName, int windowSize) throws IOException {
+      if (windowSize < 0 || (windowSize > 0 && windowSize < MIN_WINDOW))
+         throw new IllegalArgumentException("Error! Invalid window size (" + windowSize + "), it must be 0 or at least "
+               + MIN_WINDOW + " bytes.");
+
+      channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+      size = channel.size();
+
+      if (windowSize == 0 && size > Integer.MAX_VALUE) {
+         channel.close();
+         throw new IOException("Error! " + fileName + " is larger than 2 GB, map it in windows.");
+      }
+      if (windowSize == 0)
+         this.windowSize = (int) Math.max(size, 1);
+      else // keeps every mapping aligned, without overflowing past 2 GB
+         this.windowSize = (int) Math.min(((windowSize + (long) MIN_WINDOW - 1) / MIN_WINDOW) * MIN_WINDOW,
+               Integer.MAX_VALUE / MIN_WINDOW * MIN_WINDOW);
+   }
+
+   @Override
+   ByteBuffer nextWindow() throws IOException {
+      if (current != null && current.hasRemaining())
+         return current;
+      if (mappedUpTo >= size)
+         return null;
+
+      long length = Math.min(windowSize, size - mappedUpTo);
+      current = channel.map(FileChannel.MapMode.READ_ONLY, mappedUpTo, length);
+      mappedUpTo += length;
+
+      return current;
+   }
+
+   @Override
+   long position() {
+      return (current == null) ? 0 : mappedUpTo - current.remaining();
+   }
+
+   @Override
+   public void close() throws IOException {
+      current = null;
+      channel.close();
+   }
+}
@@ -1,7 +1,15 @@
 package src;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.*;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
 class MyIO {
 
@@ -9,15 +17,138 @@ class MyIO {
          new InputStreamReader(System.in, Charset.forName("ISO-8859-1")));
    private static String charset = "ISO-8859-1";
 
+   // Fast input: raw bytes are scanned out of a large buffer and numbers are
+   // parsed in place, so no String is built for numeric tokens. Text tokens are
+   // still decoded with the current charset, which must be ASCII compatible.
+   private static boolean fastInput = false;
+   private static InputStream source = System.in;
+   private static WindowedInput windowed = null;
+   private static ReadAheadInput readAhead = null;
+   private static Charset inputCharset = Charset.forName(charset);
+   private static final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+   private static ByteBuffer window = buffer.limit(0);
+   private static long windowStart = 0, tokenStart = 0;
+   private static byte[] token = new byte[64];
+
+   // Buffered output: one encoder and one byte buffer are reused for every
+   // print, and bytes only reach System.out on flush() or when the buffer fills.
+   private static boolean bufferedOutput = false, asciiDigits = true, flushOnExit = false, encoding = false;
+   private static CharsetEncoder encoder;
+   private static final ByteBuffer outBuffer = ByteBuffer.allocate(1 << 16);
+   private static final CharBuffer outChars = CharBuffer.allocate(1 << 10);
+   private static final String lineSeparator = System.lineSeparator();
+
    public static void setCharset(String charset_) {
       charset = charset_;
-      in = new BufferedReader(new InputStreamReader(System.in, Charset.forName(charset)));
+      inputCharset = Charset.forName(charset);
+      in = new BufferedReader(new InputStreamReader(source, inputCharset));
+      if (bufferedOutput)
+         setBufferedOutput(true);
+   }
+
+   public static void setFastInput(boolean enabled) {
+      fastInput = enabled;
+   }
+
+   public static void setInputFile(String fileName) throws IOException {
+      setInput(new MappedInput(fileName));
+   }
+
+   // The file is mapped windowSize bytes at a time, rounded up to a multiple of
+   // 64 KiB; a window below 64 KiB is rejected with IllegalArgumentException,
+   // since each window is a new mapping that only the GC releases.
+   public static void setInputFile(String fileName, int windowSize) throws IOException {
+      setInput(new MappedInput(fileName, windowSize));
+   }
+
+   // Standard input is read by a background thread into a ring of buffers, so
+   // parsing only waits for I/O when it catches up with the reader. The thread
+   // can not be stopped once it has taken bytes from standard input, so it is
+   // started once and kept, with the ring of the first call, for the rest of
+   // the run: rebinding to it later goes on from the first byte not yet read.
+   public static void setReadAhead() {
+      setReadAhead(4, 1 << 20);
+   }
+
+   public static void setReadAhead(int bufferCount, int bufferSize) {
+      if (readAhead == null)
+         readAhead = new ReadAheadInput(System.in, bufferCount, bufferSize);
+      setInput(readAhead);
+   }
+
+   public static long getReadAheadStalls() {
+      return (windowed instanceof ReadAheadInput) ? ((ReadAheadInput) windowed).getStalls() : 0;
+   }
+
+   // Both reading modes are rebound to the new input: fast input scans its
+   // windows in place, the BufferedReader reads it as a stream. The read-ahead
+   // input is only set aside, keeping the bytes it has already read.
+   private static void setInput(WindowedInput input) {
+      if (input == windowed)
+         return;
+
+      try {
+         if (windowed != null && windowed != readAhead)
+            windowed.close();
+      } catch (IOException ioe) {
+         System.out.println("fecharEntrada: " + ioe.getMessage());
+      }
+
+      windowed = input;
+      source = input;
+      window = buffer.limit(0);
+      windowStart = 0;
+      in = new BufferedReader(new InputStreamReader(source, inputCharset));
+   }
+
+   public static void setBufferedOutput(boolean enabled) {
+      flush();
+      bufferedOutput = enabled;
+      if (enabled) {
+         Charset cs = Charset.forName(charset);
+         encoder = cs.newEncoder()
+               .onMalformedInput(CodingErrorAction.REPLACE)
+               .onUnmappableCharacter(CodingErrorAction.REPLACE);
+         String sample = "-.0123456789EINaity";
+         asciiDigits = Arrays.equals(sample.getBytes(cs), sample.getBytes(StandardCharsets.US_ASCII));
+
+         if (!flushOnExit) {
+            flushOnExit = true;
+            Runtime.getRuntime().addShutdownHook(new Thread(MyIO::flush));
+         }
+      }
+   }
+
+   public static void flush() {
+      if (bufferedOutput) {
+         drain();
+         System.out.flush();
+      }
    }
 
    public static void print() {
    }
 
    public static void print(int x) {
+      if (bufferedOutput) {
+         writeLong(x);
+         endWrite();
+         return;
+      }
+      try {
+         PrintStream out = new PrintStream(System.out, true, charset);
+         out.print(x);
+      } catch (UnsupportedEncodingException e) {
+         System.out.println("Erro: charset invalido");
+      }
+   }
+
+   public static void print(long x) {
+      if (bufferedOutput) {
+         writeLong(x);
+         endWrite();
+         return;
+      }
       try {
          PrintStream out = new PrintStream(System.out, true, charset);
          out.print(x);
@@ -27,6 +158,11 @@ class MyIO {
    }
 
    public static void print(float x) {
+      if (bufferedOutput) {
+         writeAscii(String.valueOf(x));
+         endWrite();
+         return;
+      }
       try {
          PrintStream out = new PrintStream(System.out, true, charset);
          out.print(x);
@@ -36,6 +172,11 @@ class MyIO {
    }
 
    public static void print(double x) {
+      if (bufferedOutput) {
+         writeAscii(String.valueOf(x));
+         endWrite();
+         return;
+      }
       try {
          PrintStream out = new PrintStream(System.out, true, charset);
          out.print(x);
@@ -45,6 +186,11 @@ class MyIO {
    }
 
    public static void print(String x) {
+      if (bufferedOutput) {
+         writeChars(String.valueOf(x));
+         endWrite();
+         return;
+      }
       try {
          PrintStream out = new PrintStream(System.out, true, charset);
          out.print(x);
@@ -54,6 +200,11 @@ class MyIO {
    }
 
    public static void print(boolean x) {
+      if (bufferedOutput) {
+         writeAscii(String.valueOf(x));
+         endWrite();
+         return;
+      }
       try {
          PrintStream out = new PrintStream(System.out, true, charset);
          out.print(x);
@@ -63,6 +214,11 @@ class MyIO {
    }
 
    public static void print(char x) {
+      if (bufferedOutput) {
+         writeChar(x);
+         endWrite();
+         return;
+      }
       try {
          PrintStream out = new PrintStream(System.out, true, charset);
          out.print(x);
@@ -75,6 +231,27 @@ class MyIO {
    }
 
    public static void println(int x) {
+      if (bufferedOutput) {
+         writeLong(x);
+         newLine();
+         endWrite();
+         return;
+      }
+      try {
+         PrintStream out = new PrintStream(System.out, true, charset);
+         out.println(x);
+      } catch (UnsupportedEncodingException e) {
+         System.out.println("Erro: charset invalido");
+      }
+   }
+
+   public static void println(long x) {
+      if (bufferedOutput) {
+         writeLong(x);
+         newLine();
+         endWrite();
+         return;
+      }
       try {
          PrintStream out = new PrintStream(System.out, true, charset);
          out.println(x);
@@ -84,6 +261,12 @@ class MyIO {
    }
 
    public static void println(float x) {
+      if (bufferedOutput) {
+         writeAscii(String.valueOf(x));
+         newLine();
+         endWrite();
+         return;
+      }
       try {
          PrintStream out = new PrintStream(System.out, true, charset);
          out.println(x);
@@ -93,6 +276,12 @@ class MyIO {
    }
 
    public static void println(double x) {
+      if (bufferedOutput) {
+         writeAscii(String.valueOf(x));
+         newLine();
+         endWrite();
+         return;
+      }
       try {
          PrintStream out = new PrintStream(System.out, true, charset);
          out.println(x);
@@ -102,6 +291,12 @@ class MyIO {
    }
 
    public static void println(String x) {
+      if (bufferedOutput) {
+         writeChars(String.valueOf(x));
+         newLine();
+         endWrite();
+         return;
+      }
       try {
          PrintStream out = new PrintStream(System.out, true, charset);
          out.println(x);
@@ -111,6 +306,12 @@ class MyIO {
    }
 
    public static void println(boolean x) {
+      if (bufferedOutput) {
+         writeAscii(String.valueOf(x));
+         newLine();
+         endWrite();
+         return;
+      }
       try {
          PrintStream out = new PrintStream(System.out, true, charset);
          out.println(x);
@@ -120,6 +321,12 @@ class MyIO {
    }
 
    public static void println(char x) {
+      if (bufferedOutput) {
+         writeChar(x);
+         newLine();
+         endWrite();
+         return;
+      }
       try {
          PrintStream out = new PrintStream(System.out, true, charset);
          out.println(x);
@@ -129,6 +336,11 @@ class MyIO {
    }
 
    public static void printf(String formato, double x) {
+      if (bufferedOutput) {
+         writeChars(String.format(formato, x));
+         endWrite();
+         return;
+      }
       try {
          PrintStream out = new PrintStream(System.out, true, charset);
          out.printf(formato, x);// "%.2f"
@@ -140,19 +352,17 @@ class MyIO {
    public static double readDouble() {
       double d = -1;
       try {
-         d = Double.parseDouble(readString().trim().replace(",", "."));
+         if (fastInput)
+            d = parseDouble(token, readToken());
+         else
+            d = Double.parseDouble(readString().trim().replace(",", "."));
       } catch (Exception e) {
       }
       return d;
    }
 
    public static double readDouble(String str) {
-      try {
-         PrintStream out = new PrintStream(System.out, true, charset);
-         out.print(str);
-      } catch (UnsupportedEncodingException e) {
-         System.out.println("Erro: charset invalido");
-      }
+      prompt(str);
       return readDouble();
    }
 
@@ -167,23 +377,90 @@ class MyIO {
    public static int readInt() {
       int i = -1;
       try {
-         i = Integer.parseInt(readString().trim());
+         if (fastInput)
+            i = (int) parseLong(token, readToken(), Integer.MIN_VALUE, Integer.MAX_VALUE);
+         else
+            i = Integer.parseInt(readString().trim());
       } catch (Exception e) {
       }
       return i;
    }
 
    public static int readInt(String str) {
+      prompt(str);
+      return readInt();
+   }
+
+   public static long readLong() {
+      long l = -1;
       try {
-         PrintStream out = new PrintStream(System.out, true, charset);
-         out.print(str);
-      } catch (UnsupportedEncodingException e) {
-         System.out.println("Erro: charset invalido");
+         if (fastInput)
+            l = parseLong(token, readToken(), Long.MIN_VALUE, Long.MAX_VALUE);
+         else
+            l = Long.parseLong(readString().trim());
+      } catch (Exception e) {
       }
-      return readInt();
+      return l;
+   }
+
+   public static long readLong(String str) {
+      prompt(str);
+      return readLong();
+   }
+
+   // Bulk readers fill the array until it is full or the input ends and return
+   // how many values were read. They go through fast input only, and an invalid
+   // token raises a TokenFormatException with its position instead of -1.
+   public static int readIntArray(int[] array) {
+      return readIntArray(array, 0, array.length);
+   }
+
+   public static int readIntArray(int[] array, int offset, int length) {
+      requireFastInput();
+      int count = 0, tokenLength;
+      while (count < length && (tokenLength = readToken()) > 0) {
+         array[offset + count] = (int) parseToken(tokenLength, count, Integer.MIN_VALUE, Integer.MAX_VALUE);
+         count++;
+      }
+      return count;
+   }
+
+   public static int readLongArray(long[] array) {
+      return readLongArray(array, 0, array.length);
+   }
+
+   public static int readLongArray(long[] array, int offset, int length) {
+      requireFastInput();
+      int count = 0, tokenLength;
+      while (count < length && (tokenLength = readToken()) > 0) {
+         array[offset + count] = parseToken(tokenLength, count, Long.MIN_VALUE, Long.MAX_VALUE);
+         count++;
+      }
+      return count;
+   }
+
+   // Lazy stream over all remaining tokens; each one is parsed when consumed.
+   public static IntStream readInts() {
+      requireFastInput();
+      return StreamSupport.intStream(new Spliterators.AbstractIntSpliterator(Long.MAX_VALUE,
+            Spliterator.ORDERED | Spliterator.NONNULL) {
+         private long index = 0;
+
+         @Override
+         public boolean tryAdvance(IntConsumer action) {
+            int tokenLength = readToken();
+            if (tokenLength == 0)
+               return false;
+            action.accept((int) parseToken(tokenLength, index++, Integer.MIN_VALUE, Integer.MAX_VALUE));
+            return true;
+         }
+      }, false);
    }
 
    public static String readString() {
+      if (fastInput)
+         return new String(token, 0, readToken(), inputCharset);
+
       String s = "";
       char tmp;
       try {
@@ -200,16 +477,14 @@ class MyIO {
    }
 
    public static String readString(String str) {
-      try {
-         PrintStream out = new PrintStream(System.out, true, charset);
-         out.print(str);
-      } catch (UnsupportedEncodingException e) {
-         System.out.println("Erro: charset invalido");
-      }
+      prompt(str);
       return readString();
    }
 
    public static String readLine() {
+      if (fastInput)
+         return new String(token, 0, readLineBytes(), inputCharset);
+
       String s = "";
       char tmp;
       try {
@@ -226,31 +501,24 @@ class MyIO {
    }
 
    public static String readLine(String str) {
-      try {
-         PrintStream out = new PrintStream(System.out, true, charset);
-         out.print(str);
-      } catch (UnsupportedEncodingException e) {
-         System.out.println("Erro: charset invalido");
-      }
+      prompt(str);
       return readLine();
    }
 
    public static char readChar() {
       char resp = ' ';
       try {
-         resp = (char) in.read();
+         if (fastInput)
+            resp = readCharBytes();
+         else
+            resp = (char) in.read();
       } catch (Exception e) {
       }
       return resp;
    }
 
    public static char readChar(String str) {
-      try {
-         PrintStream out = new PrintStream(System.out, true, charset);
-         out.print(str);
-      } catch (UnsupportedEncodingException e) {
-         System.out.println("Erro: charset invalido");
-      }
+      prompt(str);
       return readChar();
    }
 
@@ -272,29 +540,318 @@ class MyIO {
    }
 
    public static boolean readBoolean(String str) {
-      try {
-         PrintStream out = new PrintStream(System.out, true, charset);
-         out.print(str);
-      } catch (UnsupportedEncodingException e) {
-         System.out.println("Erro: charset invalido");
-      }
+      prompt(str);
       return readBoolean();
    }
 
    public static void pause() {
       try {
-         in.read();
+         if (fastInput)
+            readByte();
+         else
+            in.read();
       } catch (Exception e) {
       }
    }
 
    public static void pause(String str) {
+      prompt(str);
+      pause();
+   }
+
+   private static int readByte() {
+      if (!window.hasRemaining() && !refill())
+         return -1;
+      return window.get() & 0xFF;
+   }
+
+   private static boolean refill() {
       try {
-         PrintStream out = new PrintStream(System.out, true, charset);
-         out.print(str);
-      } catch (UnsupportedEncodingException e) {
-         System.out.println("Erro: charset invalido");
+         if (windowed != null) {
+            ByteBuffer next = windowed.nextWindow();
+            if (next == null)
+               return false;
+            window = next;
+            windowStart = windowed.position() - next.position();
+         } else {
+            int n;
+            do {
+               n = source.read(buffer.array(), 0, buffer.capacity());
+            } while (n == 0);
+            if (n < 0)
+               return false;
+            windowStart += window.limit();
+            window = buffer.position(0).limit(n);
+         }
+      } catch (IOException ioe) {
+         System.out.println("lerByte: " + ioe.getMessage());
+         return false;
+      }
+      return true;
+   }
+
+   private static void requireFastInput() {
+      if (!fastInput)
+         throw new IllegalStateException("Error! Bulk reads need fast input, call setFastInput(true).");
+   }
+
+   private static long parseToken(int length, long index, long min, long max) {
+      try {
+         return parseLong(token, length, min, max);
+      } catch (NumberFormatException e) {
+         String text = new String(token, 0, Math.min(length, 32), StandardCharsets.ISO_8859_1);
+         throw new TokenFormatException(text, tokenStart, index);
+      }
+   }
+
+   private static boolean isBlank(int b) {
+      return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+   }
+
+   // Copies the next blank-delimited token into the reusable token buffer and
+   // returns its length. Leading blanks are skipped and the delimiter consumed.
+   private static int readToken() {
+      int b, length = 0;
+      do {
+         b = readByte();
+      } while (isBlank(b));
+      tokenStart = windowStart + window.position() - 1;
+
+      while (b != -1 && !isBlank(b)) {
+         if (length == token.length)
+            token = Arrays.copyOf(token, length << 1);
+         token[length++] = (byte) b;
+         b = readByte();
+      }
+      return length;
+   }
+
+   private static int readLineBytes() {
+      int b, length = 0;
+      while ((b = readByte()) != -1 && b != '\n') {
+         if (b == 13)
+            continue;
+         if (length == token.length)
+            token = Arrays.copyOf(token, length << 1);
+         token[length++] = (byte) b;
+      }
+      return length;
+   }
+
+   private static char readCharBytes() {
+      int b = readByte();
+      if (b < 0x80)
+         return (char) b;
+
+      int length = 1;
+      token[0] = (byte) b;
+      if (inputCharset.equals(StandardCharsets.UTF_8)) {
+         int continuation = (b >= 0xF0) ? 3 : (b >= 0xE0) ? 2 : 1;
+         while (continuation-- > 0 && (b = readByte()) != -1)
+            token[length++] = (byte) b;
+      }
+      return new String(token, 0, length, inputCharset).charAt(0);
+   }
+
+   // Parses a signed decimal integer straight from the token bytes, rejecting
+   // anything that Long.parseLong would reject or that falls outside [min, max].
+   private static long parseLong(byte[] bytes, int length, long min, long max) {
+      if (length == 0)
+         throw new NumberFormatException("empty token");
+
+      int i = 0;
+      boolean negative = false;
+      if (bytes[0] == '-' || bytes[0] == '+') {
+         negative = bytes[0] == '-';
+         if (++i == length)
+            throw new NumberFormatException("sign without digits");
+      }
+
+      // accumulate negatively so that Long.MIN_VALUE is representable
+      long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+      long multmin = limit / 10, value = 0;
+      for (; i < length; i++) {
+         int digit = bytes[i] - '0';
+         if (digit < 0 || digit > 9 || value < multmin)
+            throw new NumberFormatException("invalid integer token");
+         value *= 10;
+         if (value < limit + digit)
+            throw new NumberFormatException("integer overflow");
+         value -= digit;
+      }
+
+      value = negative ? value : -value;
+      if (value < min || value > max)
+         throw new NumberFormatException("integer out of range");
+      return value;
+   }
+
+   private static final double[] POWERS_OF_TEN = {
+         1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+         1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+   // Parses plain decimal notation ("-12,5", "3.25e-4") in place. When the
+   // mantissa fits in 53 bits and the exponent is within 10^22 the result is
+   // exact; any other token goes through Double.parseDouble as before.
+   private static double parseDouble(byte[] bytes, int length) {
+      int i = 0;
+      boolean negative = false;
+      if (length > 0 && (bytes[0] == '-' || bytes[0] == '+')) {
+         negative = bytes[0] == '-';
+         i++;
+      }
+
+      long mantissa = 0;
+      int exponent = 0, digits = 0;
+      boolean exact = true, seenPoint = false;
+      for (; i < length; i++) {
+         int b = bytes[i];
+         if (b >= '0' && b <= '9') {
+            digits++;
+            if (mantissa < 1_000_000_000_000_000L) {
+               mantissa = mantissa * 10 + (b - '0');
+               if (seenPoint)
+                  exponent--;
+            } else {
+               exact = false;
+               if (!seenPoint)
+                  exponent++;
+            }
+         } else if ((b == '.' || b == ',') && !seenPoint)
+            seenPoint = true;
+         else
+            break;
+      }
+
+      if (i < length && digits > 0 && (bytes[i] == 'e' || bytes[i] == 'E')) {
+         int j = i + 1, power = 0;
+         boolean negativePower = false;
+         if (j < length && (bytes[j] == '-' || bytes[j] == '+'))
+            negativePower = bytes[j++] == '-';
+         if (j < length) {
+            for (; j < length && bytes[j] >= '0' && bytes[j] <= '9' && power < 100_000; j++)
+               power = power * 10 + (bytes[j] - '0');
+            if (j == length) {
+               exponent += negativePower ? -power : power;
+               i = length;
+            }
+         }
+      }
+
+      if (i == length && digits > 0 && exact && mantissa < (1L << 53) && Math.abs(exponent) <= 22) {
+         double value = (exponent < 0) ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+         return negative ? -value : value;
+      }
+
+      String str = new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+      return Double.parseDouble(str.replace(",", "."));
+   }
+
+   private static void prompt(String str) {
+      print(str);
+      flush();
+   }
+
+   private static void drain() {
+      if (outBuffer.position() > 0) {
+         System.out.write(outBuffer.array(), 0, outBuffer.position());
+         outBuffer.clear();
+      }
+   }
+
+   private static void newLine() {
+      writeAscii(lineSeparator);
+   }
+
+   // Formats the value right-to-left into the byte buffer, without a String.
+   private static void writeLong(long x) {
+      if (!asciiDigits) {
+         writeChars(Long.toString(x));
+         return;
+      }
+      if (outBuffer.remaining() < 20)
+         drain();
+
+      byte[] bytes = outBuffer.array();
+      int start = outBuffer.position();
+      int end = start + ((x < 0) ? 1 : 0) + digits(x);
+      int pos = end;
+
+      long value = (x < 0) ? x : -x; // negative, so Long.MIN_VALUE is safe
+      do {
+         bytes[--pos] = (byte) ('0' - (value % 10));
+         value /= 10;
+      } while (value != 0);
+      if (x < 0)
+         bytes[--pos] = '-';
+
+      outBuffer.position(end);
+   }
+
+   private static int digits(long x) {
+      int count = 1;
+      for (long value = (x < 0) ? x : -x; value <= -10; value /= 10)
+         count++;
+      return count;
+   }
+
+   // Numbers, booleans and line separators are plain ASCII, so for ASCII
+   // compatible charsets they can be copied without going through the encoder.
+   private static void writeAscii(String str) {
+      if (!asciiDigits || outChars.position() > 0) {
+         writeChars(str);
+         return;
+      }
+      int length = str.length();
+      if (outBuffer.remaining() < length)
+         drain();
+      if (outBuffer.remaining() < length) {
+         writeChars(str);
+         return;
+      }
+
+      byte[] bytes = outBuffer.array();
+      int pos = outBuffer.position();
+      for (int i = 0; i < length; i++)
+         bytes[pos++] = (byte) str.charAt(i);
+      outBuffer.position(pos);
+   }
+
+   private static void writeChar(char x) {
+      outChars.put(x);
+      encodePending();
+   }
+
+   private static void writeChars(String str) {
+      int start = 0, length = str.length();
+      while (start < length) {
+         int n = Math.min(outChars.remaining(), length - start);
+         str.getChars(start, start + n, outChars.array(), outChars.position());
+         outChars.position(outChars.position() + n);
+         start += n;
+         encodePending();
+      }
+   }
+
+   // Encodes the buffered chars; a trailing high surrogate stays pending
+   // until its low surrogate arrives or the current print call ends.
+   private static void encodePending() {
+      encoding = true;
+      outChars.flip();
+      while (encoder.encode(outChars, outBuffer, false).isOverflow())
+         drain();
+      outChars.compact();
+   }
+
+   // Every print call used to go through a fresh PrintStream, so the encoder
+   // state is discarded per call. This keeps the bytes identical, including a
+   // byte order mark per call for charsets such as UTF-16 and dropping a lone
+   // trailing high surrogate.
+   private static void endWrite() {
+      if (encoding) {
+         encoding = false;
+         outChars.clear();
+         encoder.reset();
       }
-      pause();
    }
 }
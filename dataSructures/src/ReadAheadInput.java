@@ -0,0 +1,130 @@
+package src;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads an {@code InputStream} ahead of its consumer. A producer thread fills
+ * a ring of byte buffers while the consumer parses the ones already filled, so
+ * the consumer only blocks on I/O when it has caught up with the producer.
+ * Every such wait is counted as a stall.
+ */
+class ReadAheadInput extends WindowedInput {
+
+   private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+   private final InputStream source;
+   private final BlockingQueue<ByteBuffer> free, filled;
+   private final Thread producer;
+   private volatile IOException failure = null;
+   private ByteBuffer current = null;
+   private long consumed = 0, stalls = 0;
+   private boolean finished = false;
+
+   /**
+    * @param source      stream to be read ahead
+    * @param bufferCount number of buffers in the ring
+    * @param bufferSize  size in bytes of each buffer
+    */
+   ReadAheadInput(InputStream source, int bufferCount, int bufferSize) {
+      if (bufferCount < 1 || bufferSize < 1)
+         throw new IllegalArgumentException(
+               "Error! Invalid read-ahead settings (" + bufferCount + " x " + bufferSize + ").");
+
+      this.source = source;
+      free = new ArrayBlockingQueue<>(bufferCount);
+      filled = new ArrayBlockingQueue<>(bufferCount + 1); // room for END
+      for (int i = 0; i < bufferCount; i++)
+         free.add(ByteBuffer.allocate(bufferSize));
+
+      producer = new Thread(this::produce, "MyIO-read-ahead");
+      producer.setDaemon(true);
+      producer.start();
+   }
+
+   private void produce() {
+      try {
+         while (true) {
+            ByteBuffer buffer = free.take();
+            int n;
+            do {
+               n = source.read(buffer.array(), 0, buffer.capacity());
+            } while (n == 0);
+            if (n < 0)
+               break;
+
+            buffer.position(0).limit(n);
+            filled.put(buffer);
+         }
+      } catch (IOException e) {
+         failure = e;
+      } catch (InterruptedException e) {
+         // closed by the consumer
+      } finally {
+         filled.offer(END);
+      }
+   }
+
+   @Override
+   ByteBuffer nextWindow() throws IOException {
+      if (current != null && current.hasRemaining())
+         return current;
+      if (finished)
+         return null;
+
+      if (current != null) {
+         consumed += current.limit();
+         free.add(current);
+         current = null;
+      }
+
+      ByteBuffer next = filled.poll();
+      if (next == null) {
+         stalls++;
+         try {
+            next = filled.take();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Error! Interrupted while waiting for input.");
+         }
+      }
+
+      if (next == END) {
+         finished = true;
+         if (failure != null)
+            throw failure;
+         return null;
+      }
+
+      current = next;
+      return current;
+   }
+
+   @Override
+   long position() {
+      return consumed + ((current == null) ? 0 : current.position());
+   }
+
+   /**
+    * @return how many times the consumer had to wait for the producer
+    */
+   long getStalls() {
+      return stalls;
+   }
+
+   /**
+    * Discards the buffered bytes and interrupts the producer. A producer blocked
+    * in a read of the stream only notices it once that read returns, and the
+    * bytes it read are then lost, so the stream should not be read by anyone
+    * else afterwards. The stream itself is left open, since it is usually
+    * {@code System.in}.
+    */
+   @Override
+   public void close() {
+      finished = true;
+      current = null;
+      producer.interrupt();
+   }
+}
@@ -0,0 +1,33 @@
+package src;
+
+/**
+ * Thrown by the bulk readers of {@code MyIO} when a token is not a valid
+ * number. It carries where the token was found, so a bad value can not be
+ * mistaken for a real one.
+ */
+public class TokenFormatException extends NumberFormatException {
+
+   private static final long serialVersionUID = 1L;
+
+   private final long position, index;
+
+   /**
+    * @param token    text of the invalid token
+    * @param position byte offset of the token in the input
+    * @param index    number of tokens read before it in the same bulk call
+    */
+   public TokenFormatException(String token, long position, long index) {
+      super("Error! Invalid numeric token \"" + token + "\" at byte " + position + " (token " + index + ").");
+      this.position = position;
+      this.index = index;
+   }
+
+   public long getPosition() {
+      return position;
+   }
+
+   public long getIndex() {
+      return index;
+   }
+
+}
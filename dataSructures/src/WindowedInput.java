@@ -0,0 +1,47 @@
+package src;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+/**
+ * Input that hands out its bytes as a sequence of {@code ByteBuffer} windows,
+ * so {@code MyIO} can scan them in place instead of copying them into its own
+ * buffer. It can still be read as a plain {@code InputStream}.
+ */
+abstract class WindowedInput extends InputStream {
+
+   /**
+    * Returns the window holding the next unread byte, moving on to the next
+    * one once the current window has been consumed. A consumed window must not
+    * be used after this call.
+    *
+    * @return the current window, or null at the end of the input
+    * @throws IOException if the underlying input fails
+    */
+   abstract ByteBuffer nextWindow() throws IOException;
+
+   /**
+    * @return offset in the input of the next unread byte
+    */
+   abstract long position();
+
+   @Override
+   public int read() throws IOException {
+      ByteBuffer window = nextWindow();
+      return (window == null) ? -1 : window.get() & 0xFF;
+   }
+
+   @Override
+   public int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0)
+         return 0;
+
+      ByteBuffer window = nextWindow();
+      if (window == null)
+         return -1;
+
+      len = Math.min(len, window.remaining());
+      window.get(b, off, len);
+      return len;
+   }
+}
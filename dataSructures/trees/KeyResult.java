@@ -0,0 +1,51 @@
+package trees;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Helpers for the results of the nearest-key queries of the trees, such as
+ * {@code floor} or {@code first}. A result is a {@code long} holding either the
+ * {@code int} key that was found or {@code NOT_FOUND}, which lies outside the
+ * range of {@code int}. The key and the found flag thus travel in a single
+ * primitive, and the queries allocate nothing.
+ *
+ * @author raickmiranda
+ * @summary Encoding of a key that may not exist.
+ * @version 1.0
+ */
+
+public final class KeyResult {
+
+    /**
+     * Result of a query that found no key.
+     */
+    public static final long NOT_FOUND = Long.MIN_VALUE;
+
+    private KeyResult() {
+    }
+
+    /**
+     * Checks whether a query found a key.
+     *
+     * @param result returned by the query
+     * @return true if the result holds a key, false otherwise
+     */
+    public static boolean isFound(long result) {
+        return result != NOT_FOUND;
+    }
+
+    /**
+     * Returns the key held by the result of a query.
+     *
+     * @param result returned by the query
+     * @return the key that was found
+     * @throws NoSuchElementException if the query found no key
+     */
+    public static int key(long result) {
+        if (result == NOT_FOUND)
+            throw new NoSuchElementException("Error! No key was found.");
+
+        return (int) result;
+    }
+
+}
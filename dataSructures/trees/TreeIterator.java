@@ -0,0 +1,156 @@
+package trees;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Lazy iterator over the elements of a binary tree in pre-order, in-order or
+ * post-order, optionally restricted to a closed range of elements. It walks the
+ * tree with an explicit array stack, so it neither recurses nor allocates per
+ * element. Each tree provides access to its nodes by extending this class. The
+ * tree must not be modified while it is being iterated.
+ *
+ * @author raickmiranda
+ * @summary Iterator over the elements of a binary tree.
+ * @version 1.0
+ * @param <N> type of the tree nodes
+ */
+
+public abstract class TreeIterator<N> implements PrimitiveIterator.OfInt {
+
+    public enum Order {
+        PRE_ORDER, IN_ORDER, POST_ORDER
+    }
+
+    private final Order order;
+    private final int hi;
+    private Object[] stack = new Object[32];
+    private int top = 0;
+
+    /**
+     * Creates an iterator over all the elements of the tree.
+     *
+     * @param root  of the tree
+     * @param order in which the elements are visited
+     */
+    protected TreeIterator(N root, Order order) {
+        this.order = order;
+        this.hi = Integer.MAX_VALUE;
+
+        if (root == null)
+            return;
+        if (order == Order.PRE_ORDER)
+            push(root);
+        else if (order == Order.IN_ORDER)
+            pushLeft(root);
+        else
+            pushPostOrder(root);
+    }
+
+    /**
+     * Creates an in-order iterator over the elements {@code x} of a binary search
+     * tree with {@code lo <= x <= hi}. Finding the first element takes a single
+     * descent, and the iteration stops at the first element above {@code hi}.
+     *
+     * @param root of the tree
+     * @param lo   smallest element of the range
+     * @param hi   largest element of the range
+     */
+    protected TreeIterator(N root, int lo, int hi) {
+        this.order = Order.IN_ORDER;
+        this.hi = hi;
+
+        for (N node = root; node != null;) {
+            if (element(node) < lo)
+                node = right(node);
+            else {
+                push(node);
+                node = left(node);
+            }
+        }
+    }
+
+    protected abstract N left(N node);
+
+    protected abstract N right(N node);
+
+    protected abstract int element(N node);
+
+    @Override
+    public boolean hasNext() {
+        return top > 0 && (order != Order.IN_ORDER || element(peek()) <= hi);
+    }
+
+    @Override
+    public int nextInt() {
+        return element(nextNode());
+    }
+
+    /**
+     * Advances the iterator and returns the node of the next element, for
+     * iterators that need more than the element itself.
+     *
+     * @return the next node
+     */
+    protected N nextNode() {
+        if (!hasNext())
+            throw new NoSuchElementException("Error! There are no more elements in the tree.");
+
+        N node = pop();
+
+        if (order == Order.PRE_ORDER) {
+            if (right(node) != null)
+                push(right(node));
+            if (left(node) != null)
+                push(left(node));
+        } else if (order == Order.IN_ORDER)
+            pushLeft(right(node));
+        else if (top > 0 && left(peek()) == node && right(peek()) != null)
+            pushPostOrder(right(peek()));
+
+        return node;
+    }
+
+    /**
+     * Pushes the given node and its chain of left children.
+     *
+     * @param node first node of the chain
+     */
+    private void pushLeft(N node) {
+        for (; node != null; node = left(node))
+            push(node);
+    }
+
+    /**
+     * Pushes the path from the given node down to the first node visited in
+     * post-order, preferring left children.
+     *
+     * @param node root of the subtree
+     */
+    private void pushPostOrder(N node) {
+        while (node != null) {
+            push(node);
+            node = (left(node) != null) ? left(node) : right(node);
+        }
+    }
+
+    private void push(N node) {
+        if (top == stack.length)
+            stack = Arrays.copyOf(stack, top << 1);
+        stack[top++] = node;
+    }
+
+    @SuppressWarnings("unchecked")
+    private N pop() {
+        N node = (N) stack[--top];
+        stack[top] = null;
+        return node;
+    }
+
+    @SuppressWarnings("unchecked")
+    private N peek() {
+        return (N) stack[top - 1];
+    }
+
+}
@@ -0,0 +1,346 @@
+package trees.avlTree;
+
+/**
+ * The ArrayAvlTree class represents an AVL tree without node objects. The
+ * element, the level and the two children of each node are stored in parallel
+ * arrays, and a node is just an index into them. Slots of removed nodes are
+ * kept in a free list and reused by later insertions. Compared with
+ * {@code AvlTree}, a key costs 13 bytes instead of a whole {@code NodeAvl}
+ * object, and the garbage collector only sees four arrays.
+ *
+ * @author raickmiranda
+ * @summary Represents an AVL tree stored in parallel arrays.
+ * @version 1.0
+ */
+
+import java.util.Arrays;
+
+import trees.EmptyTreeException;
+
+public class ArrayAvlTree {
+
+    // index 0 stands for null: level 0 and no children
+    private static final int NIL = 0;
+
+    private int[] element, left, right;
+    private byte[] level;
+    private int root, used, free, size;
+
+    // whether the last insertion or removal modified the tree
+    private boolean changed;
+
+    /**
+     * Constructs an empty ArrayAvlTree.
+     */
+    ArrayAvlTree() {
+        this(16);
+    }
+
+    /**
+     * Constructs an empty ArrayAvlTree with room for the given number of elements
+     * before its arrays need to grow.
+     *
+     * @param capacity number of elements
+     */
+    ArrayAvlTree(int capacity) {
+        element = new int[capacity + 1];
+        left = new int[capacity + 1];
+        right = new int[capacity + 1];
+        level = new byte[capacity + 1];
+        root = free = NIL;
+        used = 1;
+        size = 0;
+    }
+
+    /**
+     * Returns the number of elements in the {@code ArrayAvlTree}.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of bytes held by the arrays of the {@code ArrayAvlTree},
+     * including the slots not in use.
+     *
+     * @return the footprint of the arrays in bytes
+     */
+    public long footprint() {
+        return 13L * element.length + 4 * 16;
+    }
+
+    /**
+     * Searches for a specified key in the {@code ArrayAvlTree}.
+     *
+     * @param key to be searched
+     * @return true if the key is found in the tree, false otherwise
+     */
+    public boolean search(int key) {
+        int currentNode = root;
+
+        while (currentNode != NIL && key != element[currentNode])
+            currentNode = (key < element[currentNode]) ? left[currentNode] : right[currentNode];
+
+        return currentNode != NIL;
+    }
+
+    /**
+     * Inserts a specified element into the {@code ArrayAvlTree}.
+     *
+     * @param in element to be inserted
+     * @throws Exception if the specified element is already present in the tree
+     */
+    public void insert(int in) throws Exception {
+        if (!insertIfAbsent(in))
+            throw new Exception("Error! The specified element is already present in the tree.");
+    }
+
+    /**
+     * Inserts a specified element into the {@code ArrayAvlTree} unless it is
+     * already present, without creating an exception for a duplicate.
+     *
+     * @param in element to be inserted
+     * @return true if the element was inserted, false if it was already present
+     * @throws Exception if an error occurs during rebalancing
+     */
+    public boolean insertIfAbsent(int in) throws Exception {
+        if (free == NIL && used == element.length)
+            grow();
+
+        changed = false;
+        root = insert(in, root);
+        if (changed)
+            size++;
+
+        return changed;
+    }
+
+    /**
+     * Recursively inserts a specified element into the {@code ArrayAvlTree}. The
+     * arrays have room for the new node before the recursion starts.
+     *
+     * @param in          element to be inserted
+     * @param currentNode node being examined
+     * @return the updated node after the insertion
+     * @throws Exception if an error occurs during rebalancing
+     */
+    private int insert(int in, int currentNode) throws Exception {
+        if (currentNode == NIL) {
+            currentNode = newNode(in);
+            changed = true;
+        } else if (in < element[currentNode])
+            left[currentNode] = insert(in, left[currentNode]);
+        else if (in > element[currentNode])
+            right[currentNode] = insert(in, right[currentNode]);
+
+        return changed ? rebalance(currentNode) : currentNode;
+    }
+
+    /**
+     * Removes the specified element from the {@code ArrayAvlTree}.
+     *
+     * @param toBeRemoved element to be removed
+     * @throws Exception if the element is not present in the tree
+     */
+    public void remove(int toBeRemoved) throws Exception {
+        if (!removeIfPresent(toBeRemoved))
+            throw new EmptyTreeException("Error! The AVL tree is empty.");
+    }
+
+    /**
+     * Removes the specified element from the {@code ArrayAvlTree} if it is
+     * present, without creating an exception for a missing element.
+     *
+     * @param toBeRemoved element to be removed
+     * @return true if the element was removed, false if it was not present
+     * @throws Exception if an error occurs during rebalancing
+     */
+    public boolean removeIfPresent(int toBeRemoved) throws Exception {
+        changed = false;
+        root = remove(toBeRemoved, root);
+        if (changed)
+            size--;
+
+        return changed;
+    }
+
+    /**
+     * Helper method to remove the specified element from the
+     * {@code ArrayAvlTree}.
+     *
+     * @param out         element to be removed
+     * @param currentNode node being checked
+     * @return updated node after removing the element
+     * @throws Exception if an error occurs during rebalancing
+     */
+    private int remove(int out, int currentNode) throws Exception {
+        if (currentNode == NIL)
+            return NIL;
+        else if (out < element[currentNode])
+            left[currentNode] = remove(out, left[currentNode]);
+        else if (out > element[currentNode])
+            right[currentNode] = remove(out, right[currentNode]);
+        else {
+            changed = true;
+
+            if (right[currentNode] == NIL)
+                currentNode = release(currentNode, left[currentNode]);
+            else if (left[currentNode] == NIL)
+                currentNode = release(currentNode, right[currentNode]);
+            else
+                left[currentNode] = findMaxLeft(currentNode, left[currentNode]);
+        }
+
+        return changed ? rebalance(currentNode) : currentNode;
+    }
+
+    /**
+     * Finds the maximum element in the left subtree of a given node, moves it into
+     * that node and releases the slot it occupied.
+     *
+     * @param currentNode from which to find the maximum element in the left subtree
+     * @param currentMax  node found in the left subtree
+     * @return the updated subtree after removing the maximum node
+     * @throws Exception if an error occurs during rebalancing
+     */
+    private int findMaxLeft(int currentNode, int currentMax) throws Exception {
+        if (right[currentMax] == NIL) {
+            element[currentNode] = element[currentMax];
+            currentMax = release(currentMax, left[currentMax]);
+        } else {
+            right[currentMax] = findMaxLeft(currentNode, right[currentMax]);
+            currentMax = rebalance(currentMax);
+        }
+
+        return currentMax;
+    }
+
+    /**
+     * Rebalances the {@code ArrayAvlTree} by performing rotations if necessary.
+     *
+     * @param node to rebalance
+     * @return the balanced node
+     * @throws Exception if an error occurs during rebalancing
+     */
+    private int rebalance(int node) throws Exception {
+        if (node != NIL) {
+            int balanceFactor = level[right[node]] - level[left[node]];
+
+            if (Math.abs(balanceFactor) <= 1)
+                setLevel(node);
+            else if (balanceFactor == 2) {
+                if (level[right[right[node]]] - level[left[right[node]]] == -1)
+                    right[node] = rightRotation(right[node]);
+
+                node = leftRotation(node);
+            } else if (balanceFactor == -2) {
+                if (level[right[left[node]]] - level[left[left[node]]] == 1)
+                    left[node] = leftRotation(left[node]);
+
+                node = rightRotation(node);
+            } else
+                throw new Exception(
+                        "Error in Node(" + element[node] + ") with invalid balance factor (" + balanceFactor + ")!");
+        }
+
+        return node;
+    }
+
+    /**
+     * Performs a left rotation on the specified node in the {@code ArrayAvlTree}.
+     *
+     * @param node to be rotated
+     * @return the new root of the rotated subtree
+     */
+    private int leftRotation(int node) {
+        int nodeRight = right[node];
+
+        right[node] = left[nodeRight];
+        left[nodeRight] = node;
+
+        setLevel(node);
+        setLevel(nodeRight);
+
+        return nodeRight;
+    }
+
+    /**
+     * Performs a right rotation on the specified node in the {@code ArrayAvlTree}.
+     *
+     * @param node to be rotated
+     * @return the new root of the rotated subtree
+     */
+    private int rightRotation(int node) {
+        int nodeLeft = left[node];
+
+        left[node] = right[nodeLeft];
+        right[nodeLeft] = node;
+
+        setLevel(node);
+        setLevel(nodeLeft);
+
+        return nodeLeft;
+    }
+
+    /**
+     * Calculates the number of levels below the given node from its children.
+     *
+     * @param node being updated
+     */
+    private void setLevel(int node) {
+        level[node] = (byte) (1 + Math.max(level[left[node]], level[right[node]]));
+    }
+
+    /**
+     * Takes a slot for a new leaf, from the free list when possible.
+     *
+     * @param in element to be stored
+     * @return index of the new node
+     */
+    private int newNode(int in) {
+        int node;
+
+        if (free != NIL) {
+            node = free;
+            free = left[free];
+        } else
+            node = used++;
+
+        element[node] = in;
+        left[node] = right[node] = NIL;
+        level[node] = 1;
+
+        return node;
+    }
+
+    /**
+     * Puts the slot of a removed node on the free list.
+     *
+     * @param node        being removed
+     * @param replacement node taking its place in the tree
+     * @return the {@code replacement}
+     */
+    private int release(int node, int replacement) {
+        left[node] = free;
+        right[node] = NIL;
+        level[node] = 0;
+        free = node;
+
+        return replacement;
+    }
+
+    /**
+     * Doubles the capacity of the arrays.
+     */
+    private void grow() {
+        int capacity = Math.max(element.length << 1, 2);
+
+        element = Arrays.copyOf(element, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        level = Arrays.copyOf(level, capacity);
+    }
+
+}
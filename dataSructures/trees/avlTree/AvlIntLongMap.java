@@ -0,0 +1,305 @@
+package trees.avlTree;
+
+/**
+ * The AvlIntLongMap class represents an ordered map from {@code int} keys to
+ * {@code long} values, kept in an AVL tree whose nodes hold both. Lookups,
+ * updates and iteration work on primitives only, so nothing is boxed. A missing
+ * key reads as 0, unless {@code getOrDefault} says otherwise.
+ *
+ * @author raickmiranda
+ * @summary Represents an AVL map with primitive keys and values.
+ * @version 1.0
+ */
+
+import java.util.function.IntToLongFunction;
+
+import trees.TreeIterator;
+
+public class AvlIntLongMap {
+
+    private NodeAvlIntLong root;
+    private int size;
+
+    // node holding the key of the last insertion, and whether it is new
+    private NodeAvlIntLong found;
+    private boolean inserted;
+
+    /**
+     * Constructs an empty map.
+     */
+    AvlIntLongMap() {
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * Returns the number of entries in the {@code AvlIntLongMap}.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the {@code AvlIntLongMap} has an entry for the given key.
+     *
+     * @param key to be searched
+     * @return true if the key is present, false otherwise
+     */
+    public boolean containsKey(int key) {
+        return find(key) != null;
+    }
+
+    /**
+     * Returns the value of the given key.
+     *
+     * @param key to be searched
+     * @return the value of the key, or 0 if it is not present
+     */
+    public long get(int key) {
+        return getOrDefault(key, 0);
+    }
+
+    /**
+     * Returns the value of the given key, or the given default if it is not
+     * present.
+     *
+     * @param key          to be searched
+     * @param defaultValue returned for a missing key
+     * @return the value of the key, or {@code defaultValue}
+     */
+    public long getOrDefault(int key, long defaultValue) {
+        NodeAvlIntLong node = find(key);
+
+        return (node == null) ? defaultValue : node.value;
+    }
+
+    /**
+     * Associates the given value with the given key, replacing the previous value
+     * if the key is already present.
+     *
+     * @param key   of the entry
+     * @param value of the entry
+     * @return the previous value of the key, or 0 if it was not present
+     */
+    public long put(int key, long value) {
+        NodeAvlIntLong node = findOrInsert(key, value);
+        long previous = inserted ? 0 : node.value;
+
+        node.value = value;
+        return previous;
+    }
+
+    /**
+     * Returns the value of the given key, first computing it and adding the entry
+     * if the key is not present.
+     *
+     * @param key     of the entry
+     * @param mapping function computing the value of a missing key
+     * @return the current value of the key
+     */
+    public long computeIfAbsent(int key, IntToLongFunction mapping) {
+        NodeAvlIntLong node = find(key);
+
+        if (node == null)
+            node = findOrInsert(key, mapping.applyAsLong(key));
+
+        return node.value;
+    }
+
+    /**
+     * Returns an iterator over the keys of the {@code AvlIntLongMap} in ascending
+     * order, which also gives the value of the last key returned.
+     *
+     * @return the entry iterator
+     */
+    public EntryIterator iterator() {
+        return new EntryIterator(root, TreeIterator.Order.IN_ORDER);
+    }
+
+    /**
+     * Returns an iterator over the keys {@code k} of the {@code AvlIntLongMap}
+     * with {@code lo <= k <= hi} in ascending order, which also gives the value
+     * of the last key returned.
+     *
+     * @param lo smallest key of the range
+     * @param hi largest key of the range
+     * @return the entry iterator
+     */
+    public EntryIterator range(int lo, int hi) {
+        return new EntryIterator(root, lo, hi);
+    }
+
+    /**
+     * Finds the node holding the given key.
+     *
+     * @param key to be searched
+     * @return the node, or null if the key is not present
+     */
+    private NodeAvlIntLong find(int key) {
+        NodeAvlIntLong currentNode = root;
+
+        while (currentNode != null && key != currentNode.key)
+            currentNode = (key < currentNode.key) ? currentNode.left : currentNode.right;
+
+        return currentNode;
+    }
+
+    /**
+     * Finds the node holding the given key, inserting it with the given value if
+     * it is not present.
+     *
+     * @param key   to be searched
+     * @param value of a new entry
+     * @return the node holding the key
+     */
+    private NodeAvlIntLong findOrInsert(int key, long value) {
+        inserted = false;
+        root = insert(key, value, root);
+
+        if (inserted)
+            size++;
+
+        NodeAvlIntLong node = found;
+        found = null;
+        return node;
+    }
+
+    /**
+     * Recursively inserts an entry into the {@code AvlIntLongMap}, rebalancing on
+     * the way back up only if a node was added.
+     *
+     * @param key         of the entry
+     * @param value       of the entry
+     * @param currentNode node being examined
+     * @return the updated node after the insertion
+     */
+    private NodeAvlIntLong insert(int key, long value, NodeAvlIntLong currentNode) {
+        if (currentNode == null) {
+            currentNode = found = new NodeAvlIntLong(key, value);
+            inserted = true;
+        } else if (key < currentNode.key)
+            currentNode.left = insert(key, value, currentNode.left);
+        else if (key > currentNode.key)
+            currentNode.right = insert(key, value, currentNode.right);
+        else
+            found = currentNode;
+
+        return inserted ? rebalance(currentNode) : currentNode;
+    }
+
+    /**
+     * Rebalances a node by performing rotations if necessary.
+     *
+     * @param node to rebalance
+     * @return the balanced node
+     */
+    private static NodeAvlIntLong rebalance(NodeAvlIntLong node) {
+        int balanceFactor = NodeAvlIntLong.getLevel(node.right) - NodeAvlIntLong.getLevel(node.left);
+
+        if (balanceFactor == 2) {
+            if (NodeAvlIntLong.getLevel(node.right.right) < NodeAvlIntLong.getLevel(node.right.left))
+                node.right = rightRotation(node.right);
+
+            node = leftRotation(node);
+        } else if (balanceFactor == -2) {
+            if (NodeAvlIntLong.getLevel(node.left.left) < NodeAvlIntLong.getLevel(node.left.right))
+                node.left = leftRotation(node.left);
+
+            node = rightRotation(node);
+        } else
+            node.setLevel();
+
+        return node;
+    }
+
+    /**
+     * Performs a left rotation on the specified node.
+     *
+     * @param node to be rotated
+     * @return the new root of the rotated subtree
+     */
+    private static NodeAvlIntLong leftRotation(NodeAvlIntLong node) {
+        NodeAvlIntLong nodeRight = node.right;
+
+        node.right = nodeRight.left;
+        nodeRight.left = node;
+
+        node.setLevel();
+        nodeRight.setLevel();
+
+        return nodeRight;
+    }
+
+    /**
+     * Performs a right rotation on the specified node.
+     *
+     * @param node to be rotated
+     * @return the new root of the rotated subtree
+     */
+    private static NodeAvlIntLong rightRotation(NodeAvlIntLong node) {
+        NodeAvlIntLong nodeLeft = node.left;
+
+        node.left = nodeLeft.right;
+        nodeLeft.right = node;
+
+        node.setLevel();
+        nodeLeft.setLevel();
+
+        return nodeLeft;
+    }
+
+    /**
+     * Iterator over the entries of an {@code AvlIntLongMap}. {@code nextInt}
+     * returns the next key and {@code value} the value that goes with it.
+     */
+    public static class EntryIterator extends TreeIterator<NodeAvlIntLong> {
+
+        private NodeAvlIntLong current;
+
+        EntryIterator(NodeAvlIntLong root, Order order) {
+            super(root, order);
+        }
+
+        EntryIterator(NodeAvlIntLong root, int lo, int hi) {
+            super(root, lo, hi);
+        }
+
+        @Override
+        public int nextInt() {
+            current = nextNode();
+            return current.key;
+        }
+
+        /**
+         * Returns the value of the last key returned by {@code nextInt}.
+         *
+         * @return the value of the current entry
+         * @throws IllegalStateException if {@code nextInt} was not called yet
+         */
+        public long value() {
+            if (current == null)
+                throw new IllegalStateException("Error! The iteration has not started.");
+
+            return current.value;
+        }
+
+        @Override
+        protected NodeAvlIntLong left(NodeAvlIntLong node) {
+            return node.left;
+        }
+
+        @Override
+        protected NodeAvlIntLong right(NodeAvlIntLong node) {
+            return node.right;
+        }
+
+        @Override
+        protected int element(NodeAvlIntLong node) {
+            return node.key;
+        }
+
+    }
+
+}
@@ -9,12 +9,32 @@ package trees.avlTree;
  * @version 1.0
  */
 
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
 import trees.EmptyTreeException;
+import trees.KeyResult;
+import trees.TreeIterator;
 
 public class AvlTree {
 
     private NodeAvl root;
 
+    // whether the last insertion or removal modified the tree
+    private boolean changed;
+
+    // whether the nodes may be shared with other trees by a set operation, in
+    // which case they are copied before the first modification
+    private boolean shared;
+
+    // combined size above which the set operations fork their subproblems
+    private static final int PARALLEL_THRESHOLD = 1 << 12;
+
+    private enum SetOperation {
+        UNION, INTERSECTION, DIFFERENCE
+    }
+
     /**
      * Constructs an empty AVL tree.
      */
@@ -22,6 +42,15 @@ public class AvlTree {
         root = null;
     }
 
+    /**
+     * Constructs an AVL tree over an existing subtree.
+     * 
+     * @param root of the tree
+     */
+    private AvlTree(NodeAvl root) {
+        this.root = root;
+    }
+
     /**
      * Searches for a specified key in the {@code AvlTree}.
      * 
@@ -54,6 +83,252 @@ public class AvlTree {
         return answer;
     }
 
+    /**
+     * Returns the number of elements in the {@code AvlTree}.
+     * 
+     * @return the number of elements
+     */
+    public int size() {
+        return NodeAvl.getSize(root);
+    }
+
+    /**
+     * Returns how many elements of the {@code AvlTree} are smaller than the given
+     * key, which is the position the key has (or would have) in sorted order.
+     * 
+     * @param key being ranked
+     * @return the number of elements smaller than {@code key}
+     */
+    public int rank(int key) {
+        int rank = 0;
+        NodeAvl currentNode = root;
+
+        while (currentNode != null) {
+            if (key <= currentNode.element)
+                currentNode = currentNode.left;
+            else {
+                rank += 1 + NodeAvl.getSize(currentNode.left);
+                currentNode = currentNode.right;
+            }
+        }
+
+        return rank;
+    }
+
+    /**
+     * Returns the element at the given position of the sorted order of the
+     * {@code AvlTree}, so that {@code select(rank(x)) == x} for every element.
+     * 
+     * @param index position of the element, starting at 0
+     * @return the {@code index}-th smallest element
+     * @throws IndexOutOfBoundsException if {@code index} is not in [0, size)
+     */
+    public int select(int index) {
+        if (index < 0 || index >= size())
+            throw new IndexOutOfBoundsException("Error! Invalid position (" + index + ") in the AVL tree.");
+
+        NodeAvl currentNode = root;
+        while (true) {
+            int leftSize = NodeAvl.getSize(currentNode.left);
+
+            if (index < leftSize)
+                currentNode = currentNode.left;
+            else if (index > leftSize) {
+                index -= leftSize + 1;
+                currentNode = currentNode.right;
+            } else
+                return currentNode.element;
+        }
+    }
+
+    /**
+     * Counts the elements of the {@code AvlTree} within the given closed range.
+     * 
+     * @param lo smallest element of the range
+     * @param hi largest element of the range
+     * @return the number of elements {@code x} with {@code lo <= x <= hi}
+     */
+    public int countInRange(int lo, int hi) {
+        if (lo > hi)
+            return 0;
+
+        int atMostHi = 0;
+        NodeAvl currentNode = root;
+
+        while (currentNode != null) {
+            if (hi < currentNode.element)
+                currentNode = currentNode.left;
+            else {
+                atMostHi += 1 + NodeAvl.getSize(currentNode.left);
+                currentNode = currentNode.right;
+            }
+        }
+
+        return atMostHi - rank(lo);
+    }
+
+    /**
+     * Returns the largest element of the {@code AvlTree} that is less than or
+     * equal to the given key.
+     * 
+     * @param key being looked up
+     * @return the element, or {@code KeyResult.NOT_FOUND} if there is none
+     */
+    public long floor(int key) {
+        long answer = KeyResult.NOT_FOUND;
+        NodeAvl currentNode = root;
+
+        while (currentNode != null) {
+            if (key == currentNode.element)
+                return key;
+            else if (key < currentNode.element)
+                currentNode = currentNode.left;
+            else {
+                answer = currentNode.element;
+                currentNode = currentNode.right;
+            }
+        }
+
+        return answer;
+    }
+
+    /**
+     * Returns the smallest element of the {@code AvlTree} that is greater than
+     * or equal to the given key.
+     * 
+     * @param key being looked up
+     * @return the element, or {@code KeyResult.NOT_FOUND} if there is none
+     */
+    public long ceiling(int key) {
+        long answer = KeyResult.NOT_FOUND;
+        NodeAvl currentNode = root;
+
+        while (currentNode != null) {
+            if (key == currentNode.element)
+                return key;
+            else if (key > currentNode.element)
+                currentNode = currentNode.right;
+            else {
+                answer = currentNode.element;
+                currentNode = currentNode.left;
+            }
+        }
+
+        return answer;
+    }
+
+    /**
+     * Returns the largest element of the {@code AvlTree} that is strictly less
+     * than the given key.
+     * 
+     * @param key being looked up
+     * @return the element, or {@code KeyResult.NOT_FOUND} if there is none
+     */
+    public long lower(int key) {
+        long answer = KeyResult.NOT_FOUND;
+        NodeAvl currentNode = root;
+
+        while (currentNode != null) {
+            if (key <= currentNode.element)
+                currentNode = currentNode.left;
+            else {
+                answer = currentNode.element;
+                currentNode = currentNode.right;
+            }
+        }
+
+        return answer;
+    }
+
+    /**
+     * Returns the smallest element of the {@code AvlTree} that is strictly
+     * greater than the given key.
+     * 
+     * @param key being looked up
+     * @return the element, or {@code KeyResult.NOT_FOUND} if there is none
+     */
+    public long higher(int key) {
+        long answer = KeyResult.NOT_FOUND;
+        NodeAvl currentNode = root;
+
+        while (currentNode != null) {
+            if (key >= currentNode.element)
+                currentNode = currentNode.right;
+            else {
+                answer = currentNode.element;
+                currentNode = currentNode.left;
+            }
+        }
+
+        return answer;
+    }
+
+    /**
+     * Returns the smallest element of the {@code AvlTree}.
+     * 
+     * @return the element, or {@code KeyResult.NOT_FOUND} if the tree is empty
+     */
+    public long first() {
+        NodeAvl currentNode = root;
+
+        if (currentNode == null)
+            return KeyResult.NOT_FOUND;
+        while (currentNode.left != null)
+            currentNode = currentNode.left;
+
+        return currentNode.element;
+    }
+
+    /**
+     * Returns the largest element of the {@code AvlTree}.
+     * 
+     * @return the element, or {@code KeyResult.NOT_FOUND} if the tree is empty
+     */
+    public long last() {
+        NodeAvl currentNode = root;
+
+        if (currentNode == null)
+            return KeyResult.NOT_FOUND;
+        while (currentNode.right != null)
+            currentNode = currentNode.right;
+
+        return currentNode.element;
+    }
+
+    /**
+     * Removes and returns the smallest element of the {@code AvlTree}.
+     * 
+     * @return the element, or {@code KeyResult.NOT_FOUND} if the tree is empty
+     * @throws Exception if an error occurs during rebalancing
+     */
+    public long pollFirst() throws Exception {
+        long first = first();
+
+        if (KeyResult.isFound(first)) {
+            own();
+            root = removeFirst(root);
+        }
+
+        return first;
+    }
+
+    /**
+     * Removes and returns the largest element of the {@code AvlTree}.
+     * 
+     * @return the element, or {@code KeyResult.NOT_FOUND} if the tree is empty
+     * @throws Exception if an error occurs during rebalancing
+     */
+    public long pollLast() throws Exception {
+        long last = last();
+
+        if (KeyResult.isFound(last)) {
+            own();
+            root = removeLast(root);
+        }
+
+        return last;
+    }
+
     /**
      * Inserts a specified element into the {@code AvlTree}.
      * 
@@ -61,63 +336,104 @@ public class AvlTree {
      * @throws Exception if the specified element is already present in the tree
      */
     public void insert(int in) throws Exception {
+        if (!insertIfAbsent(in))
+            throw new Exception("Error! The specified element is already present in the tree.");
+    }
+
+    /**
+     * Inserts a specified element into the {@code AvlTree} unless it is already
+     * present. Unlike {@code insert}, a duplicate is reported without creating an
+     * exception.
+     * 
+     * @param in element to be inserted
+     * @return true if the element was inserted, false if it was already present
+     * @throws Exception if an error occurs during rebalancing
+     */
+    public boolean insertIfAbsent(int in) throws Exception {
+        own();
+        changed = false;
         root = insert(in, root);
+
+        return changed;
     }
 
     /**
-     * Recursively inserts a specified element into the {@code AvlTree}.
+     * Recursively inserts a specified element into the {@code AvlTree}. The
+     * path is left untouched when the element is already present.
      * 
      * @param in          element to be inserted
      * @param currentNode node being examined
      * @return the updated node after the insertion
-     * @throws Exception if the specified element is already present in the tree
+     * @throws Exception if an error occurs during rebalancing
      */
     private NodeAvl insert(int in, NodeAvl currentNode) throws Exception {
-        if (currentNode == null)
+        if (currentNode == null) {
             currentNode = new NodeAvl(in);
-        else if (in < currentNode.element)
+            changed = true;
+        } else if (in < currentNode.element)
             currentNode.left = insert(in, currentNode.left);
         else if (in > currentNode.element)
             currentNode.right = insert(in, currentNode.right);
-        else
-            throw new Exception("Error! The specified element is already present in the tree.");
 
-        return rebalance(currentNode);
+        return changed ? rebalance(currentNode) : currentNode;
     }
 
     /**
      * Removes the specified element from the {@code AvlTree}.
      * 
      * @param toBeRemoved element to be removed
-     * @throws Exception if an error occurs during the removal process
+     * @throws Exception if the element is not present in the tree
      */
     public void remove(int toBeRemoved) throws Exception {
+        if (!removeIfPresent(toBeRemoved))
+            throw new EmptyTreeException("Error! The AVL tree is empty.");
+    }
+
+    /**
+     * Removes the specified element from the {@code AvlTree} if it is present.
+     * Unlike {@code remove}, a missing element is reported without creating an
+     * exception.
+     * 
+     * @param toBeRemoved element to be removed
+     * @return true if the element was removed, false if it was not present
+     * @throws Exception if an error occurs during rebalancing
+     */
+    public boolean removeIfPresent(int toBeRemoved) throws Exception {
+        own();
+        changed = false;
         root = remove(toBeRemoved, root);
+
+        return changed;
     }
 
     /**
      * Helper method to remove the specified element from the {@code AvlTree}.
+     * The path is left untouched when the element is not present.
      * 
      * @param out         element to be removed
      * @param currentNode node being checked
      * @return updated node after removing the element
-     * @throws Exception if an error occurs during the removal process
+     * @throws Exception if an error occurs during rebalancing
      */
     private NodeAvl remove(int out, NodeAvl currentNode) throws Exception {
         if (currentNode == null)
-            throw new EmptyTreeException("Error! The AVL tree is empty.");
+            return null;
         else if (out < currentNode.element)
             currentNode.left = remove(out, currentNode.left);
         else if (out > currentNode.element)
             currentNode.right = remove(out, currentNode.right);
-        else if (currentNode.right == null)
-            currentNode = currentNode.left;
-        else if (currentNode.left == null)
-            currentNode = currentNode.right;
-        else
-            currentNode.left = findMaxLeft(currentNode, currentNode.left);
+        else {
+            changed = true;
 
-        return rebalance(currentNode);
+            if (currentNode.right == null)
+                currentNode = currentNode.left;
+            else if (currentNode.left == null)
+                currentNode = currentNode.right;
+            else
+                currentNode.left = findMaxLeft(currentNode, currentNode.left);
+        }
+
+        return changed ? rebalance(currentNode) : currentNode;
     }
 
     /**
@@ -128,17 +444,489 @@ public class AvlTree {
      * @param currentNode from which to find the maximum element in the left subtree
      * @param currentMax  node found in the left subtree
      * @return the maximum node found in the left subtree
+     * @throws Exception if an error occurs during rebalancing
      */
-    private NodeAvl findMaxLeft(NodeAvl currentNode, NodeAvl currentMax) {
+    private NodeAvl findMaxLeft(NodeAvl currentNode, NodeAvl currentMax) throws Exception {
         if (currentMax.right == null) {
             currentNode.element = currentMax.element;
             currentMax = currentMax.left;
-        } else
+        } else {
             currentMax.right = findMaxLeft(currentNode, currentMax.right);
+            currentMax = rebalance(currentMax);
+        }
 
         return currentMax;
     }
 
+    /**
+     * Splits the {@code AvlTree} at the given key in O(log n). The elements
+     * smaller than the key go to the first tree and the larger ones to the last;
+     * the middle tree holds the key itself if it was present, and is empty
+     * otherwise, so {@code parts[1].size() == 1} tells whether it was found. The
+     * nodes are moved, not copied, so this tree is left empty, and joining the
+     * three trees back gives the original one.
+     * 
+     * @param key where the tree is cut
+     * @return the trees with the elements below {@code key}, {@code key} itself
+     *         if present, and above {@code key}
+     * @throws Exception if an error occurs during rebalancing
+     */
+    public AvlTree[] split(int key) throws Exception {
+        own();
+        NodeAvl[] parts = split(root, key);
+        root = null;
+
+        return new AvlTree[] { new AvlTree(parts[0]), new AvlTree(parts[2]), new AvlTree(parts[1]) };
+    }
+
+    /**
+     * Joins two trees in O(log n), given that every element of {@code left} is
+     * smaller than every element of {@code right}. The nodes are moved, not
+     * copied, so both trees are left empty.
+     * 
+     * @param left  tree with the smaller elements
+     * @param right tree with the larger elements
+     * @return the tree with the elements of both
+     * @throws Exception if the elements of the trees overlap
+     */
+    public static AvlTree join(AvlTree left, AvlTree right) throws Exception {
+        if (left.root != null && right.root != null && last(left.root) >= first(right.root).element)
+            throw new Exception("Error! The elements of the left tree must be smaller than those of the right tree.");
+
+        left.own();
+        right.own();
+        AvlTree joined = new AvlTree(join(left.root, right.root));
+        left.root = right.root = null;
+
+        return joined;
+    }
+
+    /**
+     * Recursively splits a subtree at the given key, joining the pieces left
+     * behind on the way back up.
+     * 
+     * @param currentNode root of the subtree
+     * @param key         where the subtree is cut
+     * @return the subtrees below and above {@code key}, followed by the node
+     *         holding {@code key} (or null)
+     * @throws Exception if an error occurs during rebalancing
+     */
+    private NodeAvl[] split(NodeAvl currentNode, int key) throws Exception {
+        NodeAvl[] parts;
+
+        if (currentNode == null)
+            parts = new NodeAvl[3];
+        else if (key < currentNode.element) {
+            NodeAvl right = currentNode.right;
+            parts = split(currentNode.left, key);
+            parts[1] = join(parts[1], currentNode, right);
+        } else if (key > currentNode.element) {
+            NodeAvl left = currentNode.left;
+            parts = split(currentNode.right, key);
+            parts[0] = join(left, currentNode, parts[0]);
+        } else {
+            parts = new NodeAvl[] { currentNode.left, currentNode.right, currentNode };
+            currentNode.left = currentNode.right = null;
+            currentNode.setLevel();
+            currentNode.setSize();
+        }
+
+        return parts;
+    }
+
+    /**
+     * Joins two subtrees whose elements are all smaller and all larger than the
+     * given node, respectively, using the node as the new parent. It descends the
+     * taller subtree until the heights match and rebalances on the way back up,
+     * so the cost is the difference in height.
+     * 
+     * @param left   subtree with the smaller elements
+     * @param middle node placed between them
+     * @param right  subtree with the larger elements
+     * @return the joined subtree
+     * @throws Exception if an error occurs during rebalancing
+     */
+    private static NodeAvl join(NodeAvl left, NodeAvl middle, NodeAvl right) throws Exception {
+        NodeAvl joined;
+
+        if (NodeAvl.getLevel(left) > NodeAvl.getLevel(right) + 1) {
+            left.right = join(left.right, middle, right);
+            joined = rebalance(left);
+        } else if (NodeAvl.getLevel(right) > NodeAvl.getLevel(left) + 1) {
+            right.left = join(left, middle, right.left);
+            joined = rebalance(right);
+        } else {
+            middle.left = left;
+            middle.right = right;
+            joined = rebalance(middle);
+        }
+
+        return joined;
+    }
+
+    /**
+     * Joins two subtrees whose elements are all smaller and all larger,
+     * respectively, using the first element of {@code right} as the new parent.
+     * 
+     * @param left  subtree with the smaller elements
+     * @param right subtree with the larger elements
+     * @return the joined subtree
+     * @throws Exception if an error occurs during rebalancing
+     */
+    private static NodeAvl join(NodeAvl left, NodeAvl right) throws Exception {
+        if (left == null)
+            return right;
+        if (right == null)
+            return left;
+
+        NodeAvl middle = first(right);
+        return join(left, middle, removeFirst(right));
+    }
+
+    /**
+     * Removes the node with the smallest element of a subtree.
+     * 
+     * @param currentNode root of the subtree
+     * @return the updated subtree
+     * @throws Exception if an error occurs during rebalancing
+     */
+    private static NodeAvl removeFirst(NodeAvl currentNode) throws Exception {
+        if (currentNode.left == null)
+            return currentNode.right;
+
+        currentNode.left = removeFirst(currentNode.left);
+        return rebalance(currentNode);
+    }
+
+    /**
+     * Removes the node with the largest element of a subtree.
+     * 
+     * @param currentNode root of the subtree
+     * @return the updated subtree
+     * @throws Exception if an error occurs during rebalancing
+     */
+    private static NodeAvl removeLast(NodeAvl currentNode) throws Exception {
+        if (currentNode.right == null)
+            return currentNode.left;
+
+        currentNode.right = removeLast(currentNode.right);
+        return rebalance(currentNode);
+    }
+
+    /**
+     * Returns the node with the smallest element of a non-empty subtree.
+     * 
+     * @param node root of the subtree
+     * @return the leftmost node
+     */
+    private static NodeAvl first(NodeAvl node) {
+        while (node.left != null)
+            node = node.left;
+
+        return node;
+    }
+
+    /**
+     * Returns the largest element of a non-empty subtree.
+     * 
+     * @param node root of the subtree
+     * @return the element of the rightmost node
+     */
+    private static int last(NodeAvl node) {
+        while (node.right != null)
+            node = node.right;
+
+        return node.element;
+    }
+
+    /**
+     * Returns a new tree with the elements present in this tree or in the other
+     * one. Neither tree is modified.
+     * 
+     * @param other tree to be combined with this one
+     * @return the union of both trees
+     * @throws Exception if an error occurs during rebalancing
+     */
+    public AvlTree union(AvlTree other) throws Exception {
+        return union(other, false);
+    }
+
+    /**
+     * Returns a new tree with the elements present in this tree or in the other
+     * one, optionally computing independent subproblems in parallel on the
+     * common {@code ForkJoinPool}. Neither tree is modified.
+     * 
+     * @param other    tree to be combined with this one
+     * @param parallel whether large subproblems are forked
+     * @return the union of both trees
+     * @throws Exception if an error occurs during rebalancing
+     */
+    public AvlTree union(AvlTree other, boolean parallel) throws Exception {
+        return combine(SetOperation.UNION, other, parallel);
+    }
+
+    /**
+     * Returns a new tree with the elements present in both this tree and the
+     * other one. Neither tree is modified.
+     * 
+     * @param other tree to be combined with this one
+     * @return the intersection of both trees
+     * @throws Exception if an error occurs during rebalancing
+     */
+    public AvlTree intersection(AvlTree other) throws Exception {
+        return intersection(other, false);
+    }
+
+    /**
+     * Returns a new tree with the elements present in both this tree and the
+     * other one, optionally computing independent subproblems in parallel on the
+     * common {@code ForkJoinPool}. Neither tree is modified.
+     * 
+     * @param other    tree to be combined with this one
+     * @param parallel whether large subproblems are forked
+     * @return the intersection of both trees
+     * @throws Exception if an error occurs during rebalancing
+     */
+    public AvlTree intersection(AvlTree other, boolean parallel) throws Exception {
+        return combine(SetOperation.INTERSECTION, other, parallel);
+    }
+
+    /**
+     * Returns a new tree with the elements of this tree that are not present in
+     * the other one. Neither tree is modified.
+     * 
+     * @param other tree whose elements are left out
+     * @return the difference between both trees
+     * @throws Exception if an error occurs during rebalancing
+     */
+    public AvlTree difference(AvlTree other) throws Exception {
+        return difference(other, false);
+    }
+
+    /**
+     * Returns a new tree with the elements of this tree that are not present in
+     * the other one, optionally computing independent subproblems in parallel on
+     * the common {@code ForkJoinPool}. Neither tree is modified.
+     * 
+     * @param other    tree whose elements are left out
+     * @param parallel whether large subproblems are forked
+     * @return the difference between both trees
+     * @throws Exception if an error occurs during rebalancing
+     */
+    public AvlTree difference(AvlTree other, boolean parallel) throws Exception {
+        return combine(SetOperation.DIFFERENCE, other, parallel);
+    }
+
+    /**
+     * Runs a set operation between this tree and the other one. The result
+     * shares the untouched subtrees of both operands, so all three trees are
+     * marked as shared and each one copies its nodes before it is next modified.
+     * 
+     * @param operation to be run
+     * @param other     second operand
+     * @param parallel  whether large subproblems are forked
+     * @return a new tree with the result
+     * @throws Exception if an error occurs during rebalancing
+     */
+    private AvlTree combine(SetOperation operation, AvlTree other, boolean parallel) throws Exception {
+        NodeAvl result;
+
+        if (parallel)
+            result = ForkJoinPool.commonPool().invoke(new SetTask(operation, root, other.root));
+        else
+            result = combine(operation, root, other.root, false);
+
+        AvlTree combined = new AvlTree(result);
+        shared = other.shared = combined.shared = true;
+
+        return combined;
+    }
+
+    /**
+     * Copies the nodes of the {@code AvlTree} if they may be shared with other
+     * trees, so that it can be modified in place.
+     */
+    private void own() {
+        if (shared) {
+            root = copyTree(root);
+            shared = false;
+        }
+    }
+
+    /**
+     * Recursively runs a set operation between two subtrees with the join-based
+     * algorithm: the second subtree is split at the root of the first, the
+     * operation is applied to both sides, and the results are joined back with or
+     * without that root. It takes O(m log(n / m + 1)) work for subtrees of sizes
+     * m <= n. The subtrees are only read: the result is built with the sharing
+     * joins, and a subtree that the operation leaves untouched is returned as it
+     * is instead of being copied.
+     * 
+     * @param operation to be run
+     * @param first     root of the first operand
+     * @param second    root of the second operand
+     * @param parallel  whether large subproblems are forked
+     * @return the root of the result
+     * @throws Exception if an error occurs during rebalancing
+     */
+    private static NodeAvl combine(SetOperation operation, NodeAvl first, NodeAvl second, boolean parallel)
+            throws Exception {
+        if (first == null)
+            return (operation == SetOperation.UNION) ? second : null;
+        if (second == null)
+            return (operation == SetOperation.INTERSECTION) ? null : first;
+
+        NodeAvl[] parts = splitShared(second, first.element);
+        NodeAvl left, right;
+
+        if (parallel && first.size + second.size > PARALLEL_THRESHOLD) {
+            SetTask leftTask = new SetTask(operation, first.left, parts[0]);
+            leftTask.fork();
+            right = combine(operation, first.right, parts[1], true);
+            left = leftTask.join();
+        } else {
+            left = combine(operation, first.left, parts[0], parallel);
+            right = combine(operation, first.right, parts[1], parallel);
+        }
+
+        boolean found = parts[2] != null;
+
+        if (operation == SetOperation.UNION || (operation == SetOperation.INTERSECTION) == found)
+            return (left == first.left && right == first.right) ? first : joinShared(left, first.element, right);
+        else
+            return joinShared(left, right);
+    }
+
+    /**
+     * Splits a subtree at the given key without modifying it. The nodes on the
+     * search path are copied and the untouched subtrees are shared.
+     * 
+     * @param currentNode root of the subtree
+     * @param key         where the subtree is cut
+     * @return the subtrees below and above {@code key}, followed by the node
+     *         holding {@code key} (or null)
+     * @throws Exception if an error occurs during rebalancing
+     */
+    private static NodeAvl[] splitShared(NodeAvl currentNode, int key) throws Exception {
+        NodeAvl[] parts;
+
+        if (currentNode == null)
+            parts = new NodeAvl[3];
+        else if (key < currentNode.element) {
+            parts = splitShared(currentNode.left, key);
+            parts[1] = joinShared(parts[1], currentNode.element, currentNode.right);
+        } else if (key > currentNode.element) {
+            parts = splitShared(currentNode.right, key);
+            parts[0] = joinShared(currentNode.left, currentNode.element, parts[0]);
+        } else
+            parts = new NodeAvl[] { currentNode.left, currentNode.right, currentNode };
+
+        return parts;
+    }
+
+    /**
+     * Joins two subtrees around a new node holding the given key, like
+     * {@code join}, but copying every node it would modify.
+     * 
+     * @param left  subtree with the smaller elements
+     * @param key   element of the new parent
+     * @param right subtree with the larger elements
+     * @return the joined subtree
+     * @throws Exception if an error occurs during rebalancing
+     */
+    private static NodeAvl joinShared(NodeAvl left, int key, NodeAvl right) throws Exception {
+        NodeAvl joined;
+
+        if (NodeAvl.getLevel(left) > NodeAvl.getLevel(right) + 1)
+            joined = new NodeAvl(left.element, left.left, joinShared(left.right, key, right), left.level);
+        else if (NodeAvl.getLevel(right) > NodeAvl.getLevel(left) + 1)
+            joined = new NodeAvl(right.element, joinShared(left, key, right.left), right.right, right.level);
+        else
+            joined = new NodeAvl(key, left, right, 0);
+
+        return rebalanceShared(joined);
+    }
+
+    /**
+     * Joins two subtrees whose elements are all smaller and all larger,
+     * respectively, like {@code join}, but copying every node it would modify.
+     * The largest element of {@code left} becomes the new parent.
+     * 
+     * @param left  subtree with the smaller elements
+     * @param right subtree with the larger elements
+     * @return the joined subtree
+     * @throws Exception if an error occurs during rebalancing
+     */
+    private static NodeAvl joinShared(NodeAvl left, NodeAvl right) throws Exception {
+        if (left == null)
+            return right;
+        if (right == null)
+            return left;
+
+        return joinShared(removeLastShared(left), last(left), right);
+    }
+
+    /**
+     * Removes the node with the largest element of a subtree without modifying
+     * it, copying the nodes on the path to it.
+     * 
+     * @param currentNode root of the subtree
+     * @return the updated subtree
+     * @throws Exception if an error occurs during rebalancing
+     */
+    private static NodeAvl removeLastShared(NodeAvl currentNode) throws Exception {
+        if (currentNode.right == null)
+            return currentNode.left;
+
+        return rebalanceShared(new NodeAvl(currentNode.element, currentNode.left,
+                removeLastShared(currentNode.right), currentNode.level));
+    }
+
+    /**
+     * Rebalances a newly created node whose children may be shared, copying the
+     * children that the rotations would modify.
+     * 
+     * @param node to rebalance
+     * @return the balanced node
+     * @throws Exception if an error occurs during rebalancing
+     */
+    private static NodeAvl rebalanceShared(NodeAvl node) throws Exception {
+        int balanceFactor = NodeAvl.getLevel(node.right) - NodeAvl.getLevel(node.left);
+
+        if (balanceFactor == 2) {
+            node.right = copyNode(node.right);
+            if (NodeAvl.getLevel(node.right.right) < NodeAvl.getLevel(node.right.left))
+                node.right.left = copyNode(node.right.left);
+        } else if (balanceFactor == -2) {
+            node.left = copyNode(node.left);
+            if (NodeAvl.getLevel(node.left.left) < NodeAvl.getLevel(node.left.right))
+                node.left.right = copyNode(node.left.right);
+        }
+
+        return rebalance(node);
+    }
+
+    /**
+     * Copies a single node, sharing its children.
+     * 
+     * @param node to be copied
+     * @return the copy
+     */
+    private static NodeAvl copyNode(NodeAvl node) {
+        return new NodeAvl(node.element, node.left, node.right, node.level);
+    }
+
+    /**
+     * Copies a whole subtree.
+     * 
+     * @param node root of the subtree
+     * @return the root of the copy
+     */
+    private static NodeAvl copyTree(NodeAvl node) {
+        return (node == null) ? null
+                : new NodeAvl(node.element, copyTree(node.left), copyTree(node.right), node.level);
+    }
+
     /**
      * Rebalances the {@code AvlTree} by performing rotations if necessary.
      * 
@@ -146,13 +934,14 @@ public class AvlTree {
      * @return the balanced node
      * @throws Exception if an error occurs during rebalancing
      */
-    private NodeAvl rebalance(NodeAvl node) throws Exception {
+    private static NodeAvl rebalance(NodeAvl node) throws Exception {
         if (node != null) {
             int balanceFactor = NodeAvl.getLevel(node.right) - NodeAvl.getLevel(node.left);
 
-            if (Math.abs(balanceFactor) <= 1)
+            if (Math.abs(balanceFactor) <= 1) {
                 node.setLevel();
-            else if (balanceFactor == 2) {
+                node.setSize();
+            } else if (balanceFactor == 2) {
                 int balanceFactorRightChild = NodeAvl.getLevel(node.right.right) - NodeAvl.getLevel(node.right.left);
 
                 if (balanceFactorRightChild == -1)
@@ -180,7 +969,7 @@ public class AvlTree {
      * @param node to be rotated
      * @return the new root of the rotated subtree
      */
-    private NodeAvl leftRotation(NodeAvl node) {
+    private static NodeAvl leftRotation(NodeAvl node) {
         NodeAvl nodeRight = node.right;
         NodeAvl nodeRightLeft = nodeRight.left;
 
@@ -188,7 +977,9 @@ public class AvlTree {
         node.right = nodeRightLeft;
 
         node.setLevel();
+        node.setSize();
         nodeRight.setLevel();
+        nodeRight.setSize();
 
         return nodeRight;
     }
@@ -199,7 +990,7 @@ public class AvlTree {
      * @param node to be rotated
      * @return the new root of the rotated subtree
      */
-    private NodeAvl rightRotation(NodeAvl node) {
+    private static NodeAvl rightRotation(NodeAvl node) {
         NodeAvl nodeLeft = node.left;
         NodeAvl nodeLeftRight = nodeLeft.right;
 
@@ -207,11 +998,55 @@ public class AvlTree {
         node.left = nodeLeftRight;
 
         node.setLevel();
+        node.setSize();
         nodeLeft.setLevel();
+        nodeLeft.setSize();
 
         return nodeLeft;
     }
 
+    /**
+     * Returns a lazy iterator over the elements of the {@code AvlTree} in
+     * pre-order.
+     * 
+     * @return the pre-order iterator
+     */
+    public PrimitiveIterator.OfInt preOrderIterator() {
+        return new NodeIterator(root, TreeIterator.Order.PRE_ORDER);
+    }
+
+    /**
+     * Returns a lazy iterator over the elements of the {@code AvlTree} in
+     * ascending order.
+     * 
+     * @return the in-order iterator
+     */
+    public PrimitiveIterator.OfInt inOrderIterator() {
+        return new NodeIterator(root, TreeIterator.Order.IN_ORDER);
+    }
+
+    /**
+     * Returns a lazy iterator over the elements of the {@code AvlTree} in
+     * post-order.
+     * 
+     * @return the post-order iterator
+     */
+    public PrimitiveIterator.OfInt postOrderIterator() {
+        return new NodeIterator(root, TreeIterator.Order.POST_ORDER);
+    }
+
+    /**
+     * Returns a lazy iterator over the elements {@code x} of the
+     * {@code AvlTree} with {@code lo <= x <= hi}, in ascending order.
+     * 
+     * @param lo smallest element of the range
+     * @param hi largest element of the range
+     * @return the range iterator
+     */
+    public PrimitiveIterator.OfInt range(int lo, int hi) {
+        return new NodeIterator(root, lo, hi);
+    }
+
     /**
      * Performs a pre-order traversal of the {@code AvlTree}, visiting each
      * node in a specific order.
@@ -278,4 +1113,61 @@ public class AvlTree {
         }
     }
 
+    /**
+     * Runs a set operation on subtrees as a {@code ForkJoinPool} task.
+     */
+    private static class SetTask extends RecursiveTask<NodeAvl> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final SetOperation operation;
+        private final NodeAvl first, second;
+
+        SetTask(SetOperation operation, NodeAvl first, NodeAvl second) {
+            this.operation = operation;
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        protected NodeAvl compute() {
+            try {
+                return combine(operation, first, second, true);
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }
+
+    }
+
+    /**
+     * Gives {@code TreeIterator} access to the nodes of the {@code AvlTree}.
+     */
+    private static class NodeIterator extends TreeIterator<NodeAvl> {
+
+        NodeIterator(NodeAvl root, Order order) {
+            super(root, order);
+        }
+
+        NodeIterator(NodeAvl root, int lo, int hi) {
+            super(root, lo, hi);
+        }
+
+        @Override
+        protected NodeAvl left(NodeAvl node) {
+            return node.left;
+        }
+
+        @Override
+        protected NodeAvl right(NodeAvl node) {
+            return node.right;
+        }
+
+        @Override
+        protected int element(NodeAvl node) {
+            return node.element;
+        }
+
+    }
+
 }
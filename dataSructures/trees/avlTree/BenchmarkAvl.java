@@ -0,0 +1,271 @@
+package trees.avlTree;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Benchmarks for the {@code AvlTree}. The first argument selects the scenario
+ * and the second one the number of keys.
+ * 
+ * @author raickmiranda
+ * @summary Benchmarks of the AVL tree operations.
+ * @version 1.0
+ */
+
+public class BenchmarkAvl {
+
+    public static void main(String[] args) throws Exception {
+        String scenario = (args.length > 0) ? args[0] : "rank";
+        int size = (args.length > 1) ? Integer.parseInt(args[1]) : 1_000_000;
+
+        switch (scenario) {
+            case "rank":
+                rank(size);
+                break;
+            case "memory":
+                memory(size);
+                break;
+            case "concurrent":
+                concurrent(size);
+                break;
+            default:
+                System.out.println("Unknown scenario: " + scenario);
+        }
+    }
+
+    /**
+     * Compares {@code rank} and {@code select}, which use the subtree sizes, with
+     * answering the same queries through an in-order traversal.
+     * 
+     * @param size number of keys in the tree
+     */
+    private static void rank(int size) throws Exception {
+        AvlTree tree = new AvlTree();
+        Random random = new Random(42);
+        for (int key : random.ints(size).distinct().toArray())
+            tree.insert(key);
+
+        int queries = 1_000, traversalQueries = 3;
+        int[] keys = random.ints(queries).toArray();
+        long checksum = 0;
+
+        for (int round = 1; round <= 5; round++) {
+            long ranked = -System.nanoTime();
+            for (int key : keys)
+                checksum += tree.rank(key) + tree.select(tree.size() - 1 - (key & 0xFF));
+            ranked += System.nanoTime();
+
+            long traversed = -System.nanoTime();
+            for (int i = 0; i < traversalQueries; i++)
+                checksum -= traversalRank(tree, keys[i]);
+            traversed += System.nanoTime();
+
+            System.out.printf("round %d: rank+select %.0f ns/query, traversal %.0f ns/query%n", round,
+                    (double) ranked / queries, (double) traversed / traversalQueries);
+        }
+        System.out.println("checksum " + checksum);
+    }
+
+    /**
+     * Compares the heap taken per key and the lookup latency of {@code AvlTree}
+     * and {@code ArrayAvlTree} holding the same keys.
+     * 
+     * @param size number of keys in the trees
+     */
+    private static void memory(int size) throws Exception {
+        int[] keys = new Random(42).ints(size).distinct().toArray();
+
+        long before = usedMemory();
+        AvlTree objects = new AvlTree();
+        for (int key : keys)
+            objects.insert(key);
+        long objectBytes = usedMemory() - before;
+
+        before = usedMemory();
+        ArrayAvlTree arrays = new ArrayAvlTree(keys.length);
+        for (int key : keys)
+            arrays.insert(key);
+        long arrayBytes = usedMemory() - before;
+
+        System.out.printf("AvlTree %.1f bytes/key, ArrayAvlTree %.1f bytes/key (%.1f by its arrays)%n",
+                (double) objectBytes / keys.length, (double) arrayBytes / keys.length,
+                (double) arrays.footprint() / keys.length);
+
+        int[] lookups = new Random(7).ints(keys.length).toArray();
+        for (int i = 0; i < lookups.length; i += 2)
+            lookups[i] = keys[i];
+
+        int found = 0;
+        for (int round = 1; round <= 5; round++) {
+            long objectSearch = -System.nanoTime();
+            for (int key : lookups)
+                if (objects.search(key))
+                    found++;
+            objectSearch += System.nanoTime();
+
+            long arraySearch = -System.nanoTime();
+            for (int key : lookups)
+                if (arrays.search(key))
+                    found--;
+            arraySearch += System.nanoTime();
+
+            System.out.printf("round %d: search %.1f vs %.1f ns/op (AvlTree vs ArrayAvlTree)%s%n", round,
+                    (double) objectSearch / lookups.length, (double) arraySearch / lookups.length,
+                    (found == 0) ? "" : " MISMATCH");
+        }
+    }
+
+    /**
+     * Measures the throughput of {@code ConcurrentAvlTree} and of an
+     * {@code AvlTree} guarded by {@code synchronized}, from one thread up to the
+     * number of processors, with 100%, 90% and 50% of searches. The remaining
+     * operations insert or remove a random key, so the size stays around
+     * {@code size}.
+     * 
+     * @param size number of keys in the trees
+     */
+    private static void concurrent(int size) throws Exception {
+        int processors = Runtime.getRuntime().availableProcessors();
+        ConcurrentAvlTree concurrent = new ConcurrentAvlTree();
+        AvlTree locked = new AvlTree();
+
+        for (int key : new Random(42).ints(size, 0, 2 * size).toArray()) {
+            concurrent.insertIfAbsent(key);
+            locked.insertIfAbsent(key);
+        }
+
+        for (int readPercent : new int[] { 100, 90, 50 })
+            for (int threads = 1; threads <= processors; threads = (threads == processors) ? threads + 1
+                    : Math.min(threads << 1, processors)) {
+                double lockFree = throughput(threads, readPercent, 2 * size, new Operations() {
+                    public boolean search(int key) {
+                        return concurrent.search(key);
+                    }
+
+                    public boolean insert(int key) {
+                        return concurrent.insertIfAbsent(key);
+                    }
+
+                    public boolean remove(int key) {
+                        return concurrent.removeIfPresent(key);
+                    }
+                });
+                double synchronizedTree = throughput(threads, readPercent, 2 * size, new Operations() {
+                    public boolean search(int key) {
+                        synchronized (locked) {
+                            return locked.search(key);
+                        }
+                    }
+
+                    public boolean insert(int key) throws Exception {
+                        synchronized (locked) {
+                            return locked.insertIfAbsent(key);
+                        }
+                    }
+
+                    public boolean remove(int key) throws Exception {
+                        synchronized (locked) {
+                            return locked.removeIfPresent(key);
+                        }
+                    }
+                });
+
+                System.out.printf("%3d%% reads, %2d threads: ConcurrentAvlTree %6.2f, synchronized AvlTree %6.2f Mops/s%n",
+                        readPercent, threads, lockFree, synchronizedTree);
+            }
+    }
+
+    /**
+     * Operations on one of the trees measured by {@code concurrent}.
+     */
+    private interface Operations {
+        boolean search(int key);
+
+        boolean insert(int key) throws Exception;
+
+        boolean remove(int key) throws Exception;
+    }
+
+    /**
+     * Runs random operations from the given number of threads for half a second.
+     * 
+     * @return millions of operations per second
+     */
+    private static double throughput(int threads, int readPercent, int keyRange, Operations operations)
+            throws Exception {
+        LongAdder done = new LongAdder();
+        long deadline = System.nanoTime() + 500_000_000L;
+        Thread[] workers = new Thread[threads];
+
+        for (int i = 0; i < threads; i++) {
+            SplittableRandom random = new SplittableRandom(i);
+            workers[i] = new Thread(() -> {
+                long count = 0;
+                try {
+                    while ((count & 0xFF) != 0 || System.nanoTime() < deadline) {
+                        int key = random.nextInt(keyRange), choice = random.nextInt(100);
+
+                        if (choice < readPercent)
+                            operations.search(key);
+                        else if ((choice & 1) == 0)
+                            operations.insert(key);
+                        else
+                            operations.remove(key);
+                        count++;
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                }
+                done.add(count);
+            });
+        }
+
+        long elapsed = -System.nanoTime();
+        for (Thread worker : workers)
+            worker.start();
+        for (Thread worker : workers)
+            worker.join();
+        elapsed += System.nanoTime();
+
+        return done.sum() * 1e3 / elapsed;
+    }
+
+    /**
+     * Returns the heap in use after a garbage collection.
+     */
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+
+        for (int i = 0; i < 3; i++)
+            System.gc();
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Counts the elements smaller than the key from the printed in-order
+     * traversal, which is how the position of a key was found before.
+     */
+    private static int traversalRank(AvlTree tree, int key) {
+        PrintStream console = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+
+        System.setOut(new PrintStream(captured));
+        try {
+            tree.inOrderTraversal();
+        } finally {
+            System.setOut(console);
+        }
+
+        int rank = 0;
+        for (String line : captured.toString().split("\n"))
+            if (Integer.parseInt(line.trim().split(" ")[0]) < key)
+                rank++;
+
+        return rank;
+    }
+
+}
@@ -0,0 +1,799 @@
+package trees.avlTree;
+
+/**
+ * The ConcurrentAvlTree class represents a thread-safe AVL tree following the
+ * optimistic design of Bronson, Casper, Chafi and Olukotun ("A Practical
+ * Concurrent Binary Search Tree"). Searches never lock: each node carries a
+ * version that changes when the node is rotated down or unlinked, and a reader
+ * that sees the version of the node it came from change goes back one step and
+ * retries. Writers lock only the nodes they link, unlink or rotate, always a
+ * parent before its children. Removing an element with two children just marks
+ * its node as a routing node, which is unlinked later once it has at most one
+ * child. The balance is relaxed while writers race and restored as they finish.
+ *
+ * @author raickmiranda
+ * @summary Represents a concurrent AVL tree with lock-free reads.
+ * @version 1.0
+ */
+
+import java.util.concurrent.atomic.LongAdder;
+
+import trees.EmptyTreeException;
+
+public class ConcurrentAvlTree {
+
+    // version bits: unlinked for good, being rotated down, and a change count
+    private static final long UNLINKED = 1L, SHRINKING = 2L, CHANGE = 4L;
+
+    // results of the attempts, RETRY meaning the path changed under the caller
+    private static final int FALSE = 0, TRUE = 1, RETRY = 2;
+
+    // conditions of a node, other than the new level it needs
+    private static final int NOTHING_REQUIRED = -1, UNLINK_REQUIRED = -2, REBALANCE_REQUIRED = -3;
+
+    private static final int SPINS = 100;
+
+    // never rotated nor unlinked, its right child is the root of the tree
+    private final NodeAvlConcurrent rootHolder;
+    private final LongAdder size;
+
+    /**
+     * Constructs an empty concurrent AVL tree.
+     */
+    ConcurrentAvlTree() {
+        rootHolder = new NodeAvlConcurrent(Integer.MIN_VALUE, false, null);
+        size = new LongAdder();
+    }
+
+    /**
+     * Returns the number of elements in the {@code ConcurrentAvlTree}. While
+     * other threads are modifying the tree the result is only an estimate.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return size.intValue();
+    }
+
+    /**
+     * Searches for a specified key in the {@code ConcurrentAvlTree} without
+     * locking.
+     *
+     * @param key to be searched
+     * @return true if the key is found in the tree, false otherwise
+     */
+    public boolean search(int key) {
+        return attemptSearch(key, rootHolder, 1, rootHolder.version) == TRUE;
+    }
+
+    /**
+     * Inserts a specified element into the {@code ConcurrentAvlTree}.
+     *
+     * @param in element to be inserted
+     * @throws Exception if the specified element is already present in the tree
+     */
+    public void insert(int in) throws Exception {
+        if (!insertIfAbsent(in))
+            throw new Exception("Error! The specified element is already present in the tree.");
+    }
+
+    /**
+     * Inserts a specified element into the {@code ConcurrentAvlTree} unless it
+     * is already present.
+     *
+     * @param in element to be inserted
+     * @return true if the element was inserted, false if it was already present
+     */
+    public boolean insertIfAbsent(int in) {
+        return attemptInsert(in, rootHolder, 1, rootHolder.version) == TRUE;
+    }
+
+    /**
+     * Removes the specified element from the {@code ConcurrentAvlTree}.
+     *
+     * @param toBeRemoved element to be removed
+     * @throws Exception if the element is not present in the tree
+     */
+    public void remove(int toBeRemoved) throws Exception {
+        if (!removeIfPresent(toBeRemoved))
+            throw new EmptyTreeException("Error! The AVL tree is empty.");
+    }
+
+    /**
+     * Removes the specified element from the {@code ConcurrentAvlTree} if it is
+     * present.
+     *
+     * @param toBeRemoved element to be removed
+     * @return true if the element was removed, false if it was not present
+     */
+    public boolean removeIfPresent(int toBeRemoved) {
+        return attemptRemove(toBeRemoved, rootHolder, 1, rootHolder.version) == TRUE;
+    }
+
+    /**
+     * Searches below the child of {@code node} in the given direction, as long as
+     * {@code node} keeps the version it had when the caller read the link to it.
+     *
+     * @param key         to be searched
+     * @param node        whose subtree holds the key
+     * @param direction   of the child to follow
+     * @param nodeVersion version of {@code node} seen by the caller
+     * @return TRUE or FALSE, or RETRY if {@code node} changed
+     */
+    private int attemptSearch(int key, NodeAvlConcurrent node, int direction, long nodeVersion) {
+        while (true) {
+            NodeAvlConcurrent child = node.child(direction);
+
+            if (node.version != nodeVersion)
+                return RETRY;
+            if (child == null)
+                return FALSE;
+
+            int nextDirection = Integer.compare(key, child.element);
+            if (nextDirection == 0)
+                return child.present ? TRUE : FALSE;
+
+            long childVersion = child.version;
+            if ((childVersion & SHRINKING) != 0)
+                waitUntilNotChanging(child);
+            else if ((childVersion & UNLINKED) == 0 && child == node.child(direction)) {
+                if (node.version != nodeVersion)
+                    return RETRY;
+
+                int result = attemptSearch(key, child, nextDirection, childVersion);
+                if (result != RETRY)
+                    return result;
+            }
+        }
+    }
+
+    /**
+     * Inserts below the child of {@code node} in the given direction, as long as
+     * {@code node} keeps the version it had when the caller read the link to it.
+     *
+     * @param in          element to be inserted
+     * @param node        whose subtree gets the element
+     * @param direction   of the child to follow
+     * @param nodeVersion version of {@code node} seen by the caller
+     * @return TRUE or FALSE, or RETRY if {@code node} changed
+     */
+    private int attemptInsert(int in, NodeAvlConcurrent node, int direction, long nodeVersion) {
+        int result;
+
+        do {
+            NodeAvlConcurrent child = node.child(direction);
+
+            if (node.version != nodeVersion)
+                return RETRY;
+
+            if (child == null)
+                result = attemptAttach(in, node, direction, nodeVersion);
+            else {
+                int nextDirection = Integer.compare(in, child.element);
+
+                if (nextDirection == 0)
+                    result = attemptMark(child);
+                else {
+                    long childVersion = child.version;
+                    result = RETRY;
+
+                    if ((childVersion & SHRINKING) != 0)
+                        waitUntilNotChanging(child);
+                    else if ((childVersion & UNLINKED) == 0 && child == node.child(direction)) {
+                        if (node.version != nodeVersion)
+                            return RETRY;
+
+                        result = attemptInsert(in, child, nextDirection, childVersion);
+                    }
+                }
+            }
+        } while (result == RETRY);
+
+        return result;
+    }
+
+    /**
+     * Links a new leaf as the child of {@code node} in the given direction.
+     *
+     * @param in          element of the new leaf
+     * @param node        parent of the new leaf
+     * @param direction   of the empty child
+     * @param nodeVersion version of {@code node} seen by the caller
+     * @return TRUE, or RETRY if {@code node} changed or the child was taken
+     */
+    private int attemptAttach(int in, NodeAvlConcurrent node, int direction, long nodeVersion) {
+        synchronized (node) {
+            if (node.version != nodeVersion || node.child(direction) != null)
+                return RETRY;
+
+            node.setChild(direction, new NodeAvlConcurrent(in, true, node));
+        }
+
+        size.increment();
+        fixLevelAndRebalance(node);
+        return TRUE;
+    }
+
+    /**
+     * Turns a routing node holding the element back into a member of the set.
+     *
+     * @param node holding the element
+     * @return TRUE, FALSE if the element was already present, or RETRY if the
+     *         node was unlinked
+     */
+    private int attemptMark(NodeAvlConcurrent node) {
+        synchronized (node) {
+            if ((node.version & UNLINKED) != 0)
+                return RETRY;
+            if (node.present)
+                return FALSE;
+
+            node.present = true;
+        }
+
+        size.increment();
+        return TRUE;
+    }
+
+    /**
+     * Removes from below the child of {@code node} in the given direction, as
+     * long as {@code node} keeps the version it had when the caller read the link
+     * to it.
+     *
+     * @param out         element to be removed
+     * @param node        whose subtree holds the element
+     * @param direction   of the child to follow
+     * @param nodeVersion version of {@code node} seen by the caller
+     * @return TRUE or FALSE, or RETRY if {@code node} changed
+     */
+    private int attemptRemove(int out, NodeAvlConcurrent node, int direction, long nodeVersion) {
+        int result;
+
+        do {
+            NodeAvlConcurrent child = node.child(direction);
+
+            if (node.version != nodeVersion)
+                return RETRY;
+
+            if (child == null)
+                result = FALSE;
+            else {
+                int nextDirection = Integer.compare(out, child.element);
+
+                if (nextDirection == 0)
+                    result = attemptRemoveNode(node, child);
+                else {
+                    long childVersion = child.version;
+                    result = RETRY;
+
+                    if ((childVersion & SHRINKING) != 0)
+                        waitUntilNotChanging(child);
+                    else if ((childVersion & UNLINKED) == 0 && child == node.child(direction)) {
+                        if (node.version != nodeVersion)
+                            return RETRY;
+
+                        result = attemptRemove(out, child, nextDirection, childVersion);
+                    }
+                }
+            }
+        } while (result == RETRY);
+
+        return result;
+    }
+
+    /**
+     * Removes the element of {@code node}. A node with two children becomes a
+     * routing node, any other one is unlinked from its parent.
+     *
+     * @param parent of the node
+     * @param node   holding the element
+     * @return TRUE, FALSE if the element was not present, or RETRY if the nodes
+     *         changed
+     */
+    private int attemptRemoveNode(NodeAvlConcurrent parent, NodeAvlConcurrent node) {
+        if (!node.present)
+            return FALSE;
+
+        if (!canUnlink(node)) {
+            synchronized (node) {
+                if ((node.version & UNLINKED) != 0 || canUnlink(node))
+                    return RETRY;
+                if (!node.present)
+                    return FALSE;
+
+                node.present = false;
+            }
+        } else {
+            synchronized (parent) {
+                if ((parent.version & UNLINKED) != 0 || node.parent != parent || (node.version & UNLINKED) != 0)
+                    return RETRY;
+
+                synchronized (node) {
+                    if (!node.present)
+                        return FALSE;
+                    if (!canUnlink(node))
+                        return RETRY;
+
+                    NodeAvlConcurrent splice = (node.left != null) ? node.left : node.right;
+                    if (parent.left == node)
+                        parent.left = splice;
+                    else
+                        parent.right = splice;
+                    if (splice != null)
+                        splice.parent = parent;
+
+                    node.version = UNLINKED;
+                    node.present = false;
+                }
+            }
+
+            fixLevelAndRebalance(parent);
+        }
+
+        size.decrement();
+        return TRUE;
+    }
+
+    /**
+     * Checks whether a node has at most one child and can be spliced out.
+     *
+     * @param node being checked
+     * @return true if one of the children is missing
+     */
+    private static boolean canUnlink(NodeAvlConcurrent node) {
+        return node.left == null || node.right == null;
+    }
+
+    /**
+     * Waits for the rotation that is moving a node down to finish. The rotating
+     * thread holds the lock of the node, so a reader that spins for too long
+     * blocks on it instead.
+     *
+     * @param node being rotated
+     */
+    private static void waitUntilNotChanging(NodeAvlConcurrent node) {
+        long version = node.version;
+
+        if ((version & SHRINKING) != 0) {
+            for (int i = 0; i < SPINS; i++) {
+                if (node.version != version)
+                    return;
+                Thread.onSpinWait();
+            }
+
+            synchronized (node) {
+            }
+        }
+    }
+
+    /**
+     * Repairs levels and balance from the given node up to the root, stopping as
+     * soon as a node needs nothing.
+     *
+     * @param node first node to be repaired
+     */
+    private void fixLevelAndRebalance(NodeAvlConcurrent node) {
+        while (node != null && node.parent != null) {
+            int condition = nodeCondition(node);
+
+            if (condition == NOTHING_REQUIRED || (node.version & UNLINKED) != 0)
+                return;
+
+            if (condition != UNLINK_REQUIRED && condition != REBALANCE_REQUIRED) {
+                synchronized (node) {
+                    node = fixLevel(node);
+                }
+            } else {
+                NodeAvlConcurrent parent = node.parent;
+
+                synchronized (parent) {
+                    if ((parent.version & UNLINKED) == 0 && node.parent == parent) {
+                        synchronized (node) {
+                            node = rebalance(parent, node);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Classifies what a node needs from its current children.
+     *
+     * @param node being checked
+     * @return UNLINK_REQUIRED, REBALANCE_REQUIRED, NOTHING_REQUIRED or the level
+     *         the node should have
+     */
+    private static int nodeCondition(NodeAvlConcurrent node) {
+        NodeAvlConcurrent left = node.left, right = node.right;
+
+        if ((left == null || right == null) && !node.present)
+            return UNLINK_REQUIRED;
+
+        int levelLeft = NodeAvlConcurrent.getLevel(left), levelRight = NodeAvlConcurrent.getLevel(right);
+        int balanceFactor = levelRight - levelLeft;
+        int newLevel = 1 + Math.max(levelLeft, levelRight);
+
+        if (balanceFactor < -1 || balanceFactor > 1)
+            return REBALANCE_REQUIRED;
+
+        return (node.level != newLevel) ? newLevel : NOTHING_REQUIRED;
+    }
+
+    /**
+     * Updates the level of a locked node.
+     *
+     * @param node being updated
+     * @return the next node to be repaired, or null if there is none
+     */
+    private static NodeAvlConcurrent fixLevel(NodeAvlConcurrent node) {
+        int condition = nodeCondition(node);
+
+        if (condition == REBALANCE_REQUIRED || condition == UNLINK_REQUIRED)
+            return node;
+        if (condition == NOTHING_REQUIRED)
+            return null;
+
+        node.level = condition;
+        return node.parent;
+    }
+
+    /**
+     * Unlinks a routing node, rotates an unbalanced one, or updates its level.
+     * The caller holds the locks of the node and its parent.
+     *
+     * @param parent of the node
+     * @param node   being repaired
+     * @return the next node to be repaired, or null if there is none
+     */
+    private static NodeAvlConcurrent rebalance(NodeAvlConcurrent parent, NodeAvlConcurrent node) {
+        NodeAvlConcurrent left = node.left, right = node.right;
+
+        if ((left == null || right == null) && !node.present)
+            return attemptUnlink(parent, node) ? fixLevel(parent) : node;
+
+        int levelLeft = NodeAvlConcurrent.getLevel(left), levelRight = NodeAvlConcurrent.getLevel(right);
+        int balanceFactor = levelRight - levelLeft;
+        int newLevel = 1 + Math.max(levelLeft, levelRight);
+
+        if (balanceFactor < -1)
+            return rebalanceToRight(parent, node, left, levelRight);
+        else if (balanceFactor > 1)
+            return rebalanceToLeft(parent, node, right, levelLeft);
+        else if (newLevel != node.level) {
+            node.level = newLevel;
+            return fixLevel(parent);
+        }
+
+        return null;
+    }
+
+    /**
+     * Splices out a routing node with at most one child. The caller holds the
+     * locks of the node and its parent.
+     *
+     * @param parent of the node
+     * @param node   being unlinked
+     * @return true if the node was unlinked
+     */
+    private static boolean attemptUnlink(NodeAvlConcurrent parent, NodeAvlConcurrent node) {
+        NodeAvlConcurrent parentLeft = parent.left, parentRight = parent.right;
+
+        if (parentLeft != node && parentRight != node)
+            return false;
+
+        NodeAvlConcurrent left = node.left, right = node.right;
+        if (left != null && right != null)
+            return false;
+
+        NodeAvlConcurrent splice = (left != null) ? left : right;
+        if (parentLeft == node)
+            parent.left = splice;
+        else
+            parent.right = splice;
+        if (splice != null)
+            splice.parent = parent;
+
+        node.version = UNLINKED;
+        node.present = false;
+        return true;
+    }
+
+    /**
+     * Fixes a node whose left subtree is too tall, with a right rotation or a
+     * left-right rotation. The caller holds the locks of the node and its parent.
+     *
+     * @param parent     of the node
+     * @param node       being rebalanced
+     * @param left       child of the node
+     * @param levelRight level of the right child of the node
+     * @return the next node to be repaired, or null if there is none
+     */
+    private static NodeAvlConcurrent rebalanceToRight(NodeAvlConcurrent parent, NodeAvlConcurrent node,
+            NodeAvlConcurrent left, int levelRight) {
+        synchronized (left) {
+            if (left.level - levelRight <= 1)
+                return node;
+
+            NodeAvlConcurrent leftRight = left.right;
+            int levelLeftLeft = NodeAvlConcurrent.getLevel(left.left);
+            int levelLeftRight = NodeAvlConcurrent.getLevel(leftRight);
+
+            if (levelLeftLeft >= levelLeftRight)
+                return rightRotation(parent, node, left, levelRight, levelLeftLeft, leftRight, levelLeftRight);
+
+            synchronized (leftRight) {
+                levelLeftRight = leftRight.level;
+                if (levelLeftLeft >= levelLeftRight)
+                    return rightRotation(parent, node, left, levelRight, levelLeftLeft, leftRight, levelLeftRight);
+
+                int levelLeftRightLeft = NodeAvlConcurrent.getLevel(leftRight.left);
+                int balanceFactor = levelLeftRightLeft - levelLeftLeft;
+                if (balanceFactor >= -1 && balanceFactor <= 1)
+                    return leftRightRotation(parent, node, left, levelRight, levelLeftLeft, leftRight,
+                            levelLeftRightLeft);
+            }
+
+            return rebalanceToLeft(node, left, leftRight, levelLeftLeft);
+        }
+    }
+
+    /**
+     * Fixes a node whose right subtree is too tall, with a left rotation or a
+     * right-left rotation. The caller holds the locks of the node and its parent.
+     *
+     * @param parent    of the node
+     * @param node      being rebalanced
+     * @param right     child of the node
+     * @param levelLeft level of the left child of the node
+     * @return the next node to be repaired, or null if there is none
+     */
+    private static NodeAvlConcurrent rebalanceToLeft(NodeAvlConcurrent parent, NodeAvlConcurrent node,
+            NodeAvlConcurrent right, int levelLeft) {
+        synchronized (right) {
+            if (right.level - levelLeft <= 1)
+                return node;
+
+            NodeAvlConcurrent rightLeft = right.left;
+            int levelRightLeft = NodeAvlConcurrent.getLevel(rightLeft);
+            int levelRightRight = NodeAvlConcurrent.getLevel(right.right);
+
+            if (levelRightRight >= levelRightLeft)
+                return leftRotation(parent, node, levelLeft, right, rightLeft, levelRightLeft, levelRightRight);
+
+            synchronized (rightLeft) {
+                levelRightLeft = rightLeft.level;
+                if (levelRightRight >= levelRightLeft)
+                    return leftRotation(parent, node, levelLeft, right, rightLeft, levelRightLeft, levelRightRight);
+
+                int levelRightLeftRight = NodeAvlConcurrent.getLevel(rightLeft.right);
+                int balanceFactor = levelRightRight - levelRightLeftRight;
+                if (balanceFactor >= -1 && balanceFactor <= 1)
+                    return rightLeftRotation(parent, node, levelLeft, right, rightLeft, levelRightRight,
+                            levelRightLeftRight);
+            }
+
+            return rebalanceToRight(node, right, rightLeft, levelRightRight);
+        }
+    }
+
+    /**
+     * Hands a node left unbalanced or as a routing node with one child by a
+     * rotation back to the repair loop. The new root of the rotated subtree keeps
+     * the level its parent knows, so that when the repair climbs back to it the
+     * change is noticed and carried on upwards.
+     *
+     * @param damaged     node to be repaired next
+     * @param subtreeRoot new root of the rotated subtree
+     * @param oldLevel    level of the subtree before the rotation
+     * @return the {@code damaged} node
+     */
+    private static NodeAvlConcurrent repairBelow(NodeAvlConcurrent damaged, NodeAvlConcurrent subtreeRoot,
+            int oldLevel) {
+        subtreeRoot.level = oldLevel;
+        return damaged;
+    }
+
+    /**
+     * Performs a right rotation on a locked node, marking it as shrinking while
+     * it moves down so that concurrent readers retry.
+     *
+     * @return the next node to be repaired, or null if there is none
+     */
+    private static NodeAvlConcurrent rightRotation(NodeAvlConcurrent parent, NodeAvlConcurrent node,
+            NodeAvlConcurrent left, int levelRight, int levelLeftLeft, NodeAvlConcurrent leftRight,
+            int levelLeftRight) {
+        long nodeVersion = node.version;
+        int oldLevel = node.level;
+        NodeAvlConcurrent parentLeft = parent.left;
+
+        node.version = nodeVersion | SHRINKING;
+
+        node.left = leftRight;
+        if (leftRight != null)
+            leftRight.parent = node;
+        left.right = node;
+        node.parent = left;
+        if (parentLeft == node)
+            parent.left = left;
+        else
+            parent.right = left;
+        left.parent = parent;
+
+        int newLevel = 1 + Math.max(levelLeftRight, levelRight);
+        node.level = newLevel;
+        left.level = 1 + Math.max(levelLeftLeft, newLevel);
+
+        node.version = nodeVersion + CHANGE;
+
+        int balanceNode = levelRight - levelLeftRight;
+        if (balanceNode < -1 || balanceNode > 1 || ((leftRight == null || levelRight == 0) && !node.present))
+            return repairBelow(node, left, oldLevel);
+
+        int balanceLeft = newLevel - levelLeftLeft;
+        if (balanceLeft < -1 || balanceLeft > 1)
+            return left;
+        if (levelLeftLeft == 0 && !left.present)
+            return left;
+
+        return fixLevel(parent);
+    }
+
+    /**
+     * Performs a left rotation on a locked node, marking it as shrinking while it
+     * moves down so that concurrent readers retry.
+     *
+     * @return the next node to be repaired, or null if there is none
+     */
+    private static NodeAvlConcurrent leftRotation(NodeAvlConcurrent parent, NodeAvlConcurrent node,
+            int levelLeft, NodeAvlConcurrent right, NodeAvlConcurrent rightLeft, int levelRightLeft,
+            int levelRightRight) {
+        long nodeVersion = node.version;
+        int oldLevel = node.level;
+        NodeAvlConcurrent parentLeft = parent.left;
+
+        node.version = nodeVersion | SHRINKING;
+
+        node.right = rightLeft;
+        if (rightLeft != null)
+            rightLeft.parent = node;
+        right.left = node;
+        node.parent = right;
+        if (parentLeft == node)
+            parent.left = right;
+        else
+            parent.right = right;
+        right.parent = parent;
+
+        int newLevel = 1 + Math.max(levelLeft, levelRightLeft);
+        node.level = newLevel;
+        right.level = 1 + Math.max(newLevel, levelRightRight);
+
+        node.version = nodeVersion + CHANGE;
+
+        int balanceNode = levelRightLeft - levelLeft;
+        if (balanceNode < -1 || balanceNode > 1 || ((rightLeft == null || levelLeft == 0) && !node.present))
+            return repairBelow(node, right, oldLevel);
+
+        int balanceRight = levelRightRight - newLevel;
+        if (balanceRight < -1 || balanceRight > 1)
+            return right;
+        if (levelRightRight == 0 && !right.present)
+            return right;
+
+        return fixLevel(parent);
+    }
+
+    /**
+     * Performs a left-right rotation on a locked node and its locked left child,
+     * marking both as shrinking while they move down.
+     *
+     * @return the next node to be repaired, or null if there is none
+     */
+    private static NodeAvlConcurrent leftRightRotation(NodeAvlConcurrent parent, NodeAvlConcurrent node,
+            NodeAvlConcurrent left, int levelRight, int levelLeftLeft, NodeAvlConcurrent leftRight,
+            int levelLeftRightLeft) {
+        long nodeVersion = node.version, leftVersion = left.version;
+        int oldLevel = node.level;
+        NodeAvlConcurrent parentLeft = parent.left;
+        NodeAvlConcurrent leftRightLeft = leftRight.left, leftRightRight = leftRight.right;
+        int levelLeftRightRight = NodeAvlConcurrent.getLevel(leftRightRight);
+
+        node.version = nodeVersion | SHRINKING;
+        left.version = leftVersion | SHRINKING;
+
+        node.left = leftRightRight;
+        if (leftRightRight != null)
+            leftRightRight.parent = node;
+        left.right = leftRightLeft;
+        if (leftRightLeft != null)
+            leftRightLeft.parent = left;
+        leftRight.left = left;
+        left.parent = leftRight;
+        leftRight.right = node;
+        node.parent = leftRight;
+        if (parentLeft == node)
+            parent.left = leftRight;
+        else
+            parent.right = leftRight;
+        leftRight.parent = parent;
+
+        int newLevel = 1 + Math.max(levelLeftRightRight, levelRight);
+        node.level = newLevel;
+        int newLevelLeft = 1 + Math.max(levelLeftLeft, levelLeftRightLeft);
+        left.level = newLevelLeft;
+        leftRight.level = 1 + Math.max(newLevelLeft, newLevel);
+
+        node.version = nodeVersion + CHANGE;
+        left.version = leftVersion + CHANGE;
+
+        int balanceNode = levelRight - levelLeftRightRight;
+        if (balanceNode < -1 || balanceNode > 1 || ((leftRightRight == null || levelRight == 0) && !node.present))
+            return repairBelow(node, leftRight, oldLevel);
+        if ((leftRightLeft == null || levelLeftLeft == 0) && !left.present)
+            return repairBelow(left, leftRight, oldLevel);
+
+        int balanceLeftRight = newLevel - newLevelLeft;
+        if (balanceLeftRight < -1 || balanceLeftRight > 1)
+            return leftRight;
+
+        return fixLevel(parent);
+    }
+
+    /**
+     * Performs a right-left rotation on a locked node and its locked right child,
+     * marking both as shrinking while they move down.
+     *
+     * @return the next node to be repaired, or null if there is none
+     */
+    private static NodeAvlConcurrent rightLeftRotation(NodeAvlConcurrent parent, NodeAvlConcurrent node,
+            int levelLeft, NodeAvlConcurrent right, NodeAvlConcurrent rightLeft, int levelRightRight,
+            int levelRightLeftRight) {
+        long nodeVersion = node.version, rightVersion = right.version;
+        int oldLevel = node.level;
+        NodeAvlConcurrent parentLeft = parent.left;
+        NodeAvlConcurrent rightLeftLeft = rightLeft.left, rightLeftRight = rightLeft.right;
+        int levelRightLeftLeft = NodeAvlConcurrent.getLevel(rightLeftLeft);
+
+        node.version = nodeVersion | SHRINKING;
+        right.version = rightVersion | SHRINKING;
+
+        node.right = rightLeftLeft;
+        if (rightLeftLeft != null)
+            rightLeftLeft.parent = node;
+        right.left = rightLeftRight;
+        if (rightLeftRight != null)
+            rightLeftRight.parent = right;
+        rightLeft.right = right;
+        right.parent = rightLeft;
+        rightLeft.left = node;
+        node.parent = rightLeft;
+        if (parentLeft == node)
+            parent.left = rightLeft;
+        else
+            parent.right = rightLeft;
+        rightLeft.parent = parent;
+
+        int newLevel = 1 + Math.max(levelLeft, levelRightLeftLeft);
+        node.level = newLevel;
+        int newLevelRight = 1 + Math.max(levelRightLeftRight, levelRightRight);
+        right.level = newLevelRight;
+        rightLeft.level = 1 + Math.max(newLevel, newLevelRight);
+
+        node.version = nodeVersion + CHANGE;
+        right.version = rightVersion + CHANGE;
+
+        int balanceNode = levelRightLeftLeft - levelLeft;
+        if (balanceNode < -1 || balanceNode > 1 || ((rightLeftLeft == null || levelLeft == 0) && !node.present))
+            return repairBelow(node, rightLeft, oldLevel);
+        if ((rightLeftRight == null || levelRightRight == 0) && !right.present)
+            return repairBelow(right, rightLeft, oldLevel);
+
+        int balanceRightLeft = newLevelRight - newLevel;
+        if (balanceRightLeft < -1 || balanceRightLeft > 1)
+            return rightLeft;
+
+        return fixLevel(parent);
+    }
+
+}
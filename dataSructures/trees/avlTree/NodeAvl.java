@@ -13,7 +13,7 @@ package trees.avlTree;
 
 public class NodeAvl {
 
-    protected int element, level;
+    protected int element, level, size;
     protected NodeAvl left, right;
 
     /**
@@ -38,6 +38,7 @@ public class NodeAvl {
         this.left = left;
         this.right = right;
         this.level = level;
+        setSize();
     }
 
     /**
@@ -49,6 +50,24 @@ public class NodeAvl {
         this.level = 1 + Math.max(getLevel(left), getLevel(right));
     }
 
+    /**
+     * Calculates the number of nodes in the subtree rooted at the current node
+     * and updates the size variable.
+     */
+    protected void setSize() {
+        this.size = 1 + getSize(left) + getSize(right);
+    }
+
+    /**
+     * Returns the number of nodes in the subtree rooted at the given node.
+     * 
+     * @param node being considered
+     * @return the number of nodes in the subtree, 0 for null
+     */
+    public static int getSize(NodeAvl node) {
+        return (node == null) ? 0 : node.size;
+    }
+
     /**
      * Returns the number of levels below the given node.
      * 
@@ -0,0 +1,70 @@
+package trees.avlTree;
+
+/**
+ * The NodeAvlConcurrent class represents a node in a concurrent AVL tree. Its
+ * links, level and version are volatile so that readers can walk the tree
+ * without locks, and the version lets them detect that a node was rotated or
+ * unlinked while they were looking at it. A node that is not {@code present}
+ * only routes searches to its children.
+ *
+ * @author raickmiranda
+ * @summary Represents a node in a concurrent AVL tree.
+ * @version 1.0
+ */
+
+public class NodeAvlConcurrent {
+
+    protected final int element;
+    protected volatile boolean present;
+    protected volatile int level;
+    protected volatile long version;
+    protected volatile NodeAvlConcurrent parent, left, right;
+
+    /**
+     * Creates a leaf with the given element and level 1.
+     *
+     * @param element to be stored
+     * @param present whether the element belongs to the set
+     * @param parent  node of the new leaf
+     */
+    NodeAvlConcurrent(int element, boolean present, NodeAvlConcurrent parent) {
+        this.element = element;
+        this.present = present;
+        this.parent = parent;
+        this.level = 1;
+    }
+
+    /**
+     * Returns the child in the given direction.
+     *
+     * @param direction negative for the left child, positive for the right one
+     * @return the child node
+     */
+    protected NodeAvlConcurrent child(int direction) {
+        return (direction < 0) ? left : right;
+    }
+
+    /**
+     * Replaces the child in the given direction.
+     *
+     * @param direction negative for the left child, positive for the right one
+     * @param child     new child node
+     */
+    protected void setChild(int direction, NodeAvlConcurrent child) {
+        if (direction < 0)
+            left = child;
+        else
+            right = child;
+    }
+
+    /**
+     * Returns the number of levels below the given node.
+     *
+     * @param node being considered
+     * @return the number of levels below the given node
+     */
+    public static int getLevel(NodeAvlConcurrent node) {
+        return (node == null) ? 0 : node.level;
+    }
+
+}
@@ -0,0 +1,49 @@
+package trees.avlTree;
+
+/**
+ * The NodeAvlIntLong class represents a node of an AVL map from {@code int}
+ * keys to {@code long} values. The value is stored in the node itself, next to
+ * the key, so neither of them is ever boxed.
+ *
+ * @author raickmiranda
+ * @summary Represents a node in an AVL map with primitive payloads.
+ * @version 1.0
+ */
+
+public class NodeAvlIntLong {
+
+    protected final int key;
+    protected long value;
+    protected int level;
+    protected NodeAvlIntLong left, right;
+
+    /**
+     * Creates a leaf with the given key and value and level 1.
+     *
+     * @param key   of the entry
+     * @param value of the entry
+     */
+    NodeAvlIntLong(int key, long value) {
+        this.key = key;
+        this.value = value;
+        this.level = 1;
+    }
+
+    /**
+     * Calculates the number of levels below the current node from its children.
+     */
+    protected void setLevel() {
+        this.level = 1 + Math.max(getLevel(left), getLevel(right));
+    }
+
+    /**
+     * Returns the number of levels below the given node.
+     *
+     * @param node being considered
+     * @return the number of levels below the given node
+     */
+    public static int getLevel(NodeAvlIntLong node) {
+        return (node == null) ? 0 : node.level;
+    }
+
+}
@@ -0,0 +1,54 @@
+package trees.avlTree;
+
+/**
+ * The NodeAvlPersistent class represents an immutable node of a persistent AVL
+ * tree. All of its fields are final, so a node can be shared by any number of
+ * versions of the tree and read from any thread once it is reachable.
+ *
+ * @author raickmiranda
+ * @summary Represents an immutable node in a persistent AVL tree.
+ * @version 1.0
+ */
+
+public final class NodeAvlPersistent {
+
+    protected final int element, level, size;
+    protected final NodeAvlPersistent left, right;
+
+    /**
+     * Creates a node with the given element and children, calculating its level
+     * and subtree size from them.
+     *
+     * @param element to be stored
+     * @param left    child node
+     * @param right   child node
+     */
+    NodeAvlPersistent(int element, NodeAvlPersistent left, NodeAvlPersistent right) {
+        this.element = element;
+        this.left = left;
+        this.right = right;
+        this.level = 1 + Math.max(getLevel(left), getLevel(right));
+        this.size = 1 + getSize(left) + getSize(right);
+    }
+
+    /**
+     * Returns the number of nodes in the subtree rooted at the given node.
+     *
+     * @param node being considered
+     * @return the number of nodes in the subtree, 0 for null
+     */
+    public static int getSize(NodeAvlPersistent node) {
+        return (node == null) ? 0 : node.size;
+    }
+
+    /**
+     * Returns the number of levels below the given node.
+     *
+     * @param node being considered
+     * @return the number of levels below the given node
+     */
+    public static int getLevel(NodeAvlPersistent node) {
+        return (node == null) ? 0 : node.level;
+    }
+
+}
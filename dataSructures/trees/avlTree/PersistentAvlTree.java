@@ -0,0 +1,366 @@
+package trees.avlTree;
+
+/**
+ * The PersistentAvlTree class represents an AVL tree whose nodes are never
+ * modified. An insertion or removal copies only the O(log n) nodes on the path
+ * to the change and shares everything else with the previous version, which
+ * stays intact. The current version is published atomically, so
+ * {@code snapshot()} takes O(1) and the versions it returns can be read from
+ * any thread without locks while writers keep going.
+ *
+ * @author raickmiranda
+ * @summary Represents a persistent AVL tree with immutable snapshots.
+ * @version 1.0
+ */
+
+import java.util.PrimitiveIterator;
+import java.util.concurrent.atomic.AtomicReference;
+
+import trees.EmptyTreeException;
+import trees.TreeIterator;
+
+public class PersistentAvlTree {
+
+    private final AtomicReference<NodeAvlPersistent> root;
+
+    /**
+     * Constructs an empty persistent AVL tree.
+     */
+    PersistentAvlTree() {
+        root = new AtomicReference<>(null);
+    }
+
+    /**
+     * Returns the current version of the {@code PersistentAvlTree}. It never
+     * changes, whatever is inserted or removed afterwards.
+     *
+     * @return the current version
+     */
+    public Version snapshot() {
+        return new Version(root.get());
+    }
+
+    /**
+     * Searches for a specified key in the current version of the
+     * {@code PersistentAvlTree}.
+     *
+     * @param key to be searched
+     * @return true if the key is found in the tree, false otherwise
+     */
+    public boolean search(int key) {
+        return search(key, root.get());
+    }
+
+    /**
+     * Returns the number of elements in the current version of the
+     * {@code PersistentAvlTree}.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return NodeAvlPersistent.getSize(root.get());
+    }
+
+    /**
+     * Inserts a specified element into the {@code PersistentAvlTree}.
+     *
+     * @param in element to be inserted
+     * @return the version with the element
+     * @throws Exception if the specified element is already present in the tree
+     */
+    public Version insert(int in) throws Exception {
+        NodeAvlPersistent current, updated;
+
+        do {
+            current = root.get();
+            updated = insert(in, current);
+            if (updated == current)
+                throw new Exception("Error! The specified element is already present in the tree.");
+        } while (!root.compareAndSet(current, updated));
+
+        return new Version(updated);
+    }
+
+    /**
+     * Inserts a specified element into the {@code PersistentAvlTree} unless it
+     * is already present, without creating an exception for a duplicate.
+     *
+     * @param in element to be inserted
+     * @return true if the element was inserted, false if it was already present
+     */
+    public boolean insertIfAbsent(int in) {
+        NodeAvlPersistent current, updated;
+
+        do {
+            current = root.get();
+            updated = insert(in, current);
+            if (updated == current)
+                return false;
+        } while (!root.compareAndSet(current, updated));
+
+        return true;
+    }
+
+    /**
+     * Removes the specified element from the {@code PersistentAvlTree}.
+     *
+     * @param toBeRemoved element to be removed
+     * @return the version without the element
+     * @throws Exception if the element is not present in the tree
+     */
+    public Version remove(int toBeRemoved) throws Exception {
+        NodeAvlPersistent current, updated;
+
+        do {
+            current = root.get();
+            updated = remove(toBeRemoved, current);
+            if (updated == current)
+                throw new EmptyTreeException("Error! The AVL tree is empty.");
+        } while (!root.compareAndSet(current, updated));
+
+        return new Version(updated);
+    }
+
+    /**
+     * Removes the specified element from the {@code PersistentAvlTree} if it is
+     * present, without creating an exception for a missing element.
+     *
+     * @param toBeRemoved element to be removed
+     * @return true if the element was removed, false if it was not present
+     */
+    public boolean removeIfPresent(int toBeRemoved) {
+        NodeAvlPersistent current, updated;
+
+        do {
+            current = root.get();
+            updated = remove(toBeRemoved, current);
+            if (updated == current)
+                return false;
+        } while (!root.compareAndSet(current, updated));
+
+        return true;
+    }
+
+    /**
+     * Searches for a specified key in a subtree.
+     *
+     * @param key         to be searched
+     * @param currentNode root of the subtree
+     * @return true if the key is found in the subtree, false otherwise
+     */
+    private static boolean search(int key, NodeAvlPersistent currentNode) {
+        while (currentNode != null && key != currentNode.element)
+            currentNode = (key < currentNode.element) ? currentNode.left : currentNode.right;
+
+        return currentNode != null;
+    }
+
+    /**
+     * Recursively builds the version of a subtree with the given element,
+     * copying the nodes on the path to it.
+     *
+     * @param in          element to be inserted
+     * @param currentNode root of the subtree
+     * @return the new root, or {@code currentNode} itself if the element was
+     *         already present
+     */
+    private static NodeAvlPersistent insert(int in, NodeAvlPersistent currentNode) {
+        if (currentNode == null)
+            return new NodeAvlPersistent(in, null, null);
+
+        if (in < currentNode.element) {
+            NodeAvlPersistent left = insert(in, currentNode.left);
+            return (left == currentNode.left) ? currentNode : balance(currentNode.element, left, currentNode.right);
+        } else if (in > currentNode.element) {
+            NodeAvlPersistent right = insert(in, currentNode.right);
+            return (right == currentNode.right) ? currentNode : balance(currentNode.element, currentNode.left, right);
+        } else
+            return currentNode;
+    }
+
+    /**
+     * Recursively builds the version of a subtree without the given element,
+     * copying the nodes on the path to it. A node with two children takes the
+     * maximum element of its left subtree instead.
+     *
+     * @param out         element to be removed
+     * @param currentNode root of the subtree
+     * @return the new root, or {@code currentNode} itself if the element was not
+     *         present
+     */
+    private static NodeAvlPersistent remove(int out, NodeAvlPersistent currentNode) {
+        if (currentNode == null)
+            return null;
+
+        if (out < currentNode.element) {
+            NodeAvlPersistent left = remove(out, currentNode.left);
+            return (left == currentNode.left) ? currentNode : balance(currentNode.element, left, currentNode.right);
+        } else if (out > currentNode.element) {
+            NodeAvlPersistent right = remove(out, currentNode.right);
+            return (right == currentNode.right) ? currentNode : balance(currentNode.element, currentNode.left, right);
+        } else if (currentNode.right == null)
+            return currentNode.left;
+        else if (currentNode.left == null)
+            return currentNode.right;
+        else
+            return balance(findMax(currentNode.left), removeMax(currentNode.left), currentNode.right);
+    }
+
+    /**
+     * Builds the version of a non-empty subtree without its maximum element.
+     *
+     * @param currentNode root of the subtree
+     * @return the new root
+     */
+    private static NodeAvlPersistent removeMax(NodeAvlPersistent currentNode) {
+        if (currentNode.right == null)
+            return currentNode.left;
+
+        return balance(currentNode.element, currentNode.left, removeMax(currentNode.right));
+    }
+
+    /**
+     * Returns the maximum element of a non-empty subtree.
+     *
+     * @param node root of the subtree
+     * @return the element of the rightmost node
+     */
+    private static int findMax(NodeAvlPersistent node) {
+        while (node.right != null)
+            node = node.right;
+
+        return node.element;
+    }
+
+    /**
+     * Creates a node with the given element and children, performing the same
+     * rotations as {@code AvlTree} when their levels differ by two. The rotated
+     * nodes are created anew instead of modified.
+     *
+     * @param element of the node
+     * @param left    child subtree
+     * @param right   child subtree
+     * @return the root of the balanced subtree
+     */
+    private static NodeAvlPersistent balance(int element, NodeAvlPersistent left, NodeAvlPersistent right) {
+        int balanceFactor = NodeAvlPersistent.getLevel(right) - NodeAvlPersistent.getLevel(left);
+
+        if (balanceFactor == 2) {
+            if (NodeAvlPersistent.getLevel(right.right) < NodeAvlPersistent.getLevel(right.left)) {
+                NodeAvlPersistent rightLeft = right.left;
+                return new NodeAvlPersistent(rightLeft.element, new NodeAvlPersistent(element, left, rightLeft.left),
+                        new NodeAvlPersistent(right.element, rightLeft.right, right.right));
+            }
+
+            return new NodeAvlPersistent(right.element, new NodeAvlPersistent(element, left, right.left),
+                    right.right);
+        } else if (balanceFactor == -2) {
+            if (NodeAvlPersistent.getLevel(left.left) < NodeAvlPersistent.getLevel(left.right)) {
+                NodeAvlPersistent leftRight = left.right;
+                return new NodeAvlPersistent(leftRight.element,
+                        new NodeAvlPersistent(left.element, left.left, leftRight.left),
+                        new NodeAvlPersistent(element, leftRight.right, right));
+            }
+
+            return new NodeAvlPersistent(left.element, left.left,
+                    new NodeAvlPersistent(element, left.right, right));
+        }
+
+        return new NodeAvlPersistent(element, left, right);
+    }
+
+    /**
+     * An immutable version of the {@code PersistentAvlTree}.
+     */
+    public static final class Version {
+
+        private final NodeAvlPersistent root;
+
+        private Version(NodeAvlPersistent root) {
+            this.root = root;
+        }
+
+        /**
+         * Searches for a specified key in this version.
+         *
+         * @param key to be searched
+         * @return true if the key is found, false otherwise
+         */
+        public boolean search(int key) {
+            return PersistentAvlTree.search(key, root);
+        }
+
+        /**
+         * Returns the number of elements in this version.
+         *
+         * @return the number of elements
+         */
+        public int size() {
+            return NodeAvlPersistent.getSize(root);
+        }
+
+        /**
+         * Returns a lazy iterator over the elements of this version in pre-order.
+         *
+         * @return the pre-order iterator
+         */
+        public PrimitiveIterator.OfInt preOrderIterator() {
+            return new NodeIterator(root, TreeIterator.Order.PRE_ORDER);
+        }
+
+        /**
+         * Returns a lazy iterator over the elements of this version in ascending
+         * order.
+         *
+         * @return the in-order iterator
+         */
+        public PrimitiveIterator.OfInt inOrderIterator() {
+            return new NodeIterator(root, TreeIterator.Order.IN_ORDER);
+        }
+
+        /**
+         * Returns a lazy iterator over the elements {@code x} of this version with
+         * {@code lo <= x <= hi}, in ascending order.
+         *
+         * @param lo smallest element of the range
+         * @param hi largest element of the range
+         * @return the range iterator
+         */
+        public PrimitiveIterator.OfInt range(int lo, int hi) {
+            return new NodeIterator(root, lo, hi);
+        }
+
+    }
+
+    /**
+     * Gives {@code TreeIterator} access to the nodes of the
+     * {@code PersistentAvlTree}.
+     */
+    private static class NodeIterator extends TreeIterator<NodeAvlPersistent> {
+
+        NodeIterator(NodeAvlPersistent root, Order order) {
+            super(root, order);
+        }
+
+        NodeIterator(NodeAvlPersistent root, int lo, int hi) {
+            super(root, lo, hi);
+        }
+
+        @Override
+        protected NodeAvlPersistent left(NodeAvlPersistent node) {
+            return node.left;
+        }
+
+        @Override
+        protected NodeAvlPersistent right(NodeAvlPersistent node) {
+            return node.right;
+        }
+
+        @Override
+        protected int element(NodeAvlPersistent node) {
+            return node.element;
+        }
+
+    }
+
+}
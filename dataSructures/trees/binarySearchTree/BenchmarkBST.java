@@ -0,0 +1,94 @@
+package trees.binarySearchTree;
+
+import java.util.Random;
+
+/**
+ * Compares the loop-based operations of {@code BinarySearchTree} with the
+ * recursive versions they replaced, on random keys, and shows that sorted keys
+ * no longer overflow the call stack.
+ *
+ * @author raickmiranda
+ * @summary Benchmark of the iterative binary search tree operations.
+ * @version 1.0
+ */
+
+public class BenchmarkBST {
+
+    public static void main(String[] args) throws Exception {
+        int size = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        int[] keys = new Random(42).ints(size).toArray();
+
+        for (int round = 1; round <= 5; round++) {
+            long iterativeInsert = -System.nanoTime();
+            BinarySearchTree iterative = new BinarySearchTree(false);
+            for (int key : keys)
+                try {
+                    iterative.insert(key);
+                } catch (Exception e) {
+                }
+            iterativeInsert += System.nanoTime();
+
+            long recursiveInsert = -System.nanoTime();
+            NodeBS recursive = null;
+            for (int key : keys)
+                try {
+                    recursive = insert(key, recursive);
+                } catch (Exception e) {
+                }
+            recursiveInsert += System.nanoTime();
+
+            int found = 0;
+            long iterativeSearch = -System.nanoTime();
+            for (int key : keys)
+                if (iterative.search(key ^ 1))
+                    found++;
+            iterativeSearch += System.nanoTime();
+
+            long recursiveSearch = -System.nanoTime();
+            for (int key : keys)
+                if (search(key ^ 1, recursive))
+                    found--;
+            recursiveSearch += System.nanoTime();
+
+            System.out.printf("round %d: insert %.1f vs %.1f ns/op, search %.1f vs %.1f ns/op (iterative vs recursive)%s%n",
+                    round, (double) iterativeInsert / size, (double) recursiveInsert / size,
+                    (double) iterativeSearch / size, (double) recursiveSearch / size, (found == 0) ? "" : " MISMATCH");
+        }
+
+        BinarySearchTree sorted = new BinarySearchTree();
+        for (int key = 0; key < 100_000; key++)
+            sorted.insert(key);
+        System.out.println("sorted 100000 keys, height " + sorted.getHeight());
+    }
+
+    /**
+     * Recursive insertion, as {@code BinarySearchTree} used to do it.
+     */
+    private static NodeBS insert(int in, NodeBS currentNode) throws Exception {
+        if (currentNode == null)
+            currentNode = new NodeBS(in);
+        else if (in < currentNode.element)
+            currentNode.left = insert(in, currentNode.left);
+        else if (in > currentNode.element)
+            currentNode.right = insert(in, currentNode.right);
+        else
+            throw new Exception("Error! The specified element is already present in the tree.");
+
+        return currentNode;
+    }
+
+    /**
+     * Recursive search, as {@code BinarySearchTree} used to do it.
+     */
+    private static boolean search(int key, NodeBS currentNode) {
+        if (currentNode == null)
+            return false;
+        else if (key == currentNode.element)
+            return true;
+        else if (key < currentNode.element)
+            return search(key, currentNode.left);
+        else
+            return search(key, currentNode.right);
+    }
+
+}
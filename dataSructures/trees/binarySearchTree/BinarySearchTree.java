@@ -11,17 +11,166 @@ package trees.binarySearchTree;
  * @version 1.0
  */
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+
 import trees.EmptyTreeException;
+import trees.TreeIterator;
 
 public class BinarySearchTree {
 
     private NodeBS root;
+    private final boolean augmented;
+    private double rebalanceFactor = 0;
+
+    // ancestors visited by the current operation, whose counters must be updated
+    private NodeBS[] path = new NodeBS[32];
+    private int pathLength = 0;
 
     /**
-     * Constructs an empty BinarySearchTree.
+     * Constructs an empty BinarySearchTree whose nodes keep their subtree size and
+     * level.
      */
     BinarySearchTree() {
-        root = null;
+        this(true);
+    }
+
+    /**
+     * Constructs an empty BinarySearchTree.
+     * 
+     * @param augmented whether nodes keep their subtree size and level, making
+     *                  {@code size()} and {@code height()} constant time at the
+     *                  cost of 8 bytes per node
+     */
+    BinarySearchTree(boolean augmented) {
+        this.root = null;
+        this.augmented = augmented;
+    }
+
+    /**
+     * Builds a perfectly balanced {@code BinarySearchTree} holding the given
+     * elements in linear time. Unsorted input is copied and sorted with a parallel
+     * sort first; the array itself is never modified.
+     * 
+     * @param array elements to be stored
+     * @return the new {@code BinarySearchTree}
+     * @throws Exception if an element appears more than once, just like
+     *                   {@code insert}
+     */
+    public static BinarySearchTree fromSorted(int[] array) throws Exception {
+        return fromSorted(array, 0, array.length);
+    }
+
+    /**
+     * Builds a perfectly balanced {@code BinarySearchTree} holding the elements of
+     * {@code array[from..to)} in linear time. Unsorted input is copied and sorted
+     * with a parallel sort first; the array itself is never modified.
+     * 
+     * @param array elements to be stored
+     * @param from  first index, inclusive
+     * @param to    last index, exclusive
+     * @return the new {@code BinarySearchTree}
+     * @throws Exception if an element appears more than once, just like
+     *                   {@code insert}
+     */
+    public static BinarySearchTree fromSorted(int[] array, int from, int to) throws Exception {
+        return fromSorted(array, from, to, true);
+    }
+
+    /**
+     * Builds a perfectly balanced {@code BinarySearchTree} holding the elements of
+     * {@code array[from..to)} in linear time, choosing whether its nodes are
+     * augmented.
+     * 
+     * @param array     elements to be stored
+     * @param from      first index, inclusive
+     * @param to        last index, exclusive
+     * @param augmented whether nodes keep their subtree size and level
+     * @return the new {@code BinarySearchTree}
+     * @throws Exception if an element appears more than once, just like
+     *                   {@code insert}
+     */
+    public static BinarySearchTree fromSorted(int[] array, int from, int to, boolean augmented) throws Exception {
+        if (from < 0 || to > array.length || from > to)
+            throw new IndexOutOfBoundsException("Error! Invalid range [" + from + ", " + to + ").");
+
+        int index = from + 1;
+        while (index < to && array[index - 1] < array[index])
+            index++;
+
+        if (index < to) {
+            array = Arrays.copyOfRange(array, from, to);
+            Arrays.parallelSort(array);
+            to -= from;
+            from = 0;
+
+            for (index = 1; index < to; index++)
+                if (array[index - 1] == array[index])
+                    throw new Exception("Error! The specified element is already present in the tree.");
+        }
+
+        BinarySearchTree tree = new BinarySearchTree(augmented);
+        tree.root = build(array, from, to - 1, augmented);
+        return tree;
+    }
+
+    /**
+     * Builds a balanced subtree from the sorted elements of
+     * {@code array[first..last]}, taking the middle one as its root.
+     * 
+     * @param array     sorted elements without duplicates
+     * @param first     index of the smallest element of the subtree
+     * @param last      index of the largest element of the subtree
+     * @param augmented whether nodes keep their subtree size and level
+     * @return root of the subtree, or null if the range is empty
+     */
+    private static NodeBS build(int[] array, int first, int last, boolean augmented) {
+        if (first > last)
+            return null;
+
+        int middle = (first + last) >>> 1;
+        NodeBS left = build(array, first, middle - 1, augmented);
+        NodeBS right = build(array, middle + 1, last, augmented);
+
+        return augmented ? new NodeBSAugmented(array[middle], left, right) : new NodeBS(array[middle], left, right);
+    }
+
+    /**
+     * Returns the number of elements in the {@code BinarySearchTree}, in constant
+     * time when the nodes are augmented.
+     * 
+     * @return the number of elements
+     */
+    public int size() {
+        if (augmented)
+            return NodeBSAugmented.getSize(root);
+
+        int size = 0;
+        ArrayDeque<NodeBS> pending = new ArrayDeque<>();
+        if (root != null)
+            pending.push(root);
+
+        while (!pending.isEmpty()) {
+            NodeBS node = pending.pop();
+            size++;
+            if (node.left != null)
+                pending.push(node.left);
+            if (node.right != null)
+                pending.push(node.right);
+        }
+
+        return size;
+    }
+
+    /**
+     * Returns the height of the {@code BinarySearchTree}, in constant time when
+     * the nodes are augmented.
+     * 
+     * @return height of the {@code BinarySearchTree}, or -1 if it is empty
+     */
+    public int height() {
+        return augmented ? NodeBSAugmented.getLevel(root) - 1 : getHeight();
     }
 
     /**
@@ -31,158 +180,299 @@ public class BinarySearchTree {
      * @return true if the key is found in the tree, false otherwise
      */
     public boolean search(int key) {
-        return search(key, root);
+        NodeBS currentNode = root;
+
+        while (currentNode != null && key != currentNode.element)
+            currentNode = (key < currentNode.element) ? currentNode.left : currentNode.right;
+
+        return currentNode != null;
     }
 
     /**
-     * Searches for a specific key in the {@code BinarySearchTree} starting from the
-     * given node.
+     * Calculates and returns the height of the {@code BinarySearchTree}.
      * 
-     * @param key         element to be searched for
-     * @param currentNode node being examined
-     * @return true if the key is found in the subtree rooted at the
-     *         {@code currentNode}, false otherwise
+     * @return height of the {@code BinarySearchTree}, or -1 if it is empty
      */
-    private boolean search(int key, NodeBS currentNode) {
-        boolean answer;
-
-        if (currentNode == null)
-            answer = false;
-        else if (key == currentNode.element)
-            answer = true;
-        else if (key < currentNode.element)
-            answer = search(key, currentNode.left);
-        else
-            answer = search(key, currentNode.right);
-
-        return answer;
+    public int getHeight() {
+        return getHeight(root, 0);
     }
 
     /**
      * Calculates and returns the height of the {@code BinarySearchTree}. The heigth
-     * is defined as the maximum number of edges from the roof to a leaf node.
+     * is defined as the maximum number of edges from the roof to a leaf node. The
+     * subtree is walked level by level, so a degenerate tree does not overflow the
+     * call stack.
      * 
      * @param currentNode node being processed
      * @param height      of the {@code currentNode}
      * @return height of the {@code BinarySearchTree}
      */
     public int getHeight(NodeBS currentNode, int height) {
+        ArrayDeque<NodeBS> level = new ArrayDeque<>();
+
         if (currentNode == null)
-            height--;
-        else {
-            int heightLeft = getHeight(currentNode.left, height + 1);
-            int heightRight = getHeight(currentNode.right, height + 1);
-            height = (heightLeft > heightRight) ? heightLeft : heightRight;
+            return height - 1;
+
+        level.add(currentNode);
+        while (true) {
+            for (int count = level.size(); count > 0; count--) {
+                NodeBS node = level.poll();
+                if (node.left != null)
+                    level.add(node.left);
+                if (node.right != null)
+                    level.add(node.right);
+            }
+
+            if (level.isEmpty())
+                return height;
+            height++;
         }
-        return height;
     }
 
     /**
-     * Inserts the specified element into the {@code BinarySearchTree}.
+     * Enables or disables the automatic rebalance of the {@code BinarySearchTree}.
+     * When enabled, an insertion that makes the height exceed
+     * {@code factor * log2(size)} rebuilds, with the same algorithm as
+     * {@code rebalance()}, the lowest subtree on its path that is too unbalanced
+     * (as in a scapegoat tree). This keeps insertions amortized O(log n), even for
+     * sorted input, where rebuilding the whole tree would cost O(n) every few
+     * insertions.
      * 
-     * @param in the element to be inserted
-     * @throws Exception if the specified element is already present in the tree
+     * @param factor at least 1 to enable the automatic rebalance, 0 to disable it
+     * @throws IllegalStateException if the nodes are not augmented, since the
+     *                               check needs constant time size and height
      */
-    public void insert(int in) throws Exception {
-        root = insert(in, root);
+    public void setAutoRebalance(double factor) {
+        if (factor != 0 && factor < 1)
+            throw new IllegalArgumentException("Error! The rebalance factor must be at least 1.");
+        if (factor != 0 && !augmented)
+            throw new IllegalStateException("Error! Automatic rebalance needs augmented nodes.");
+
+        rebalanceFactor = factor;
     }
 
     /**
-     * Helper method to insert (normally) the specified element into
-     * {@code BinarySearchTree}.
+     * Rebuilds the {@code BinarySearchTree} into a balanced shape in linear time
+     * with the Day-Stout-Warren algorithm. The existing nodes are relinked rather
+     * than reallocated, and only a constant number of extra references is used.
+     */
+    public void rebalance() {
+        root = rebuild(root);
+
+        if (augmented)
+            updateCounters(root);
+    }
+
+    /**
+     * Rebuilds the given subtree into a balanced shape with the Day-Stout-Warren
+     * algorithm.
      * 
-     * @param in          the element to be inserted
-     * @param currentNode node being considered
-     * @return the modified {@code currentNode} structure
-     * @throws Exception if the specified element is already present in the tree
+     * @param subtree root of the subtree
+     * @return the new root of the subtree
      */
-    private NodeBS insert(int in, NodeBS currentNode) throws Exception {
-        if (currentNode == null)
-            currentNode = new NodeBS(in);
-        else if (in < currentNode.element)
-            currentNode.left = insert(in, currentNode.left);
-        else if (in > currentNode.element)
-            currentNode.right = insert(in, currentNode.right);
-        else
-            throw new Exception("Error! The specified element is already present in the tree.");
+    private static NodeBS rebuild(NodeBS subtree) {
+        NodeBS pseudoRoot = new NodeBS(0, null, subtree);
+        int size = treeToVine(pseudoRoot);
+        vineToTree(pseudoRoot, size);
 
-        return currentNode;
+        return pseudoRoot.right;
     }
 
     /**
-     * Inserts a new node with the specified value using the parent pointer
-     * approach.
+     * Turns the tree hanging from the right of the pseudo root into a vine, a
+     * sorted chain of right children, by rotating every left child up.
+     * 
+     * @param pseudoRoot node whose right child is the root of the tree
+     * @return the number of nodes in the tree
+     */
+    private static int treeToVine(NodeBS pseudoRoot) {
+        NodeBS tail = pseudoRoot, rest = tail.right;
+        int size = 0;
+
+        while (rest != null) {
+            if (rest.left == null) {
+                tail = rest;
+                rest = rest.right;
+                size++;
+            } else {
+                NodeBS temp = rest.left;
+                rest.left = temp.right;
+                temp.right = rest;
+                rest = temp;
+                tail.right = temp;
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Turns the vine hanging from the right of the pseudo root into a balanced
+     * tree, first placing the leaves of the incomplete bottom level and then
+     * halving the vine until it is gone.
+     * 
+     * @param pseudoRoot node whose right child is the first node of the vine
+     * @param size       number of nodes in the vine
+     */
+    private static void vineToTree(NodeBS pseudoRoot, int size) {
+        int leaves = size + 1 - Integer.highestOneBit(size + 1);
+        compress(pseudoRoot, leaves);
+
+        for (size -= leaves; size > 1; size /= 2)
+            compress(pseudoRoot, size / 2);
+    }
+
+    /**
+     * Rotates left every other node of the vine, for the given number of times.
+     * 
+     * @param pseudoRoot node whose right child is the first node of the vine
+     * @param count      number of left rotations
+     */
+    private static void compress(NodeBS pseudoRoot, int count) {
+        NodeBS scanner = pseudoRoot;
+
+        for (int i = 0; i < count; i++) {
+            NodeBS child = scanner.right;
+            scanner.right = child.right;
+            scanner = scanner.right;
+            child.right = scanner.left;
+            scanner.left = child;
+        }
+    }
+
+    /**
+     * Recalculates the size and level of every augmented node, children first.
+     * The tree is balanced when this is called, so the recursion is shallow.
+     * 
+     * @param node root of the subtree
+     */
+    private static void updateCounters(NodeBS node) {
+        if (node != null) {
+            updateCounters(node.left);
+            updateCounters(node.right);
+            ((NodeBSAugmented) node).update();
+        }
+    }
+
+    /**
+     * Inserts the specified element into the {@code BinarySearchTree}, following
+     * the child links down to the empty position.
      * 
      * @param in the element to be inserted
      * @throws Exception if the specified element is already present in the tree
      */
-    public void insertByParent(int in) throws Exception {
-        if (root == null)
-            root = new NodeBS(in);
-        else if (in < root.element)
-            insertByParent(in, root.left, root);
-        else if (in > root.element)
-            insertByParent(in, root.right, root);
-        else
+    public void insert(int in) throws Exception {
+        if (!insertIfAbsent(in))
             throw new Exception("Error! The specified element is already present in the tree.");
     }
 
     /**
-     * Helper method to insert (by parent) the specified element into
-     * {@code BinarySearchTree}.
+     * Inserts the specified element into the {@code BinarySearchTree} unless it is
+     * already present. Unlike {@code insert}, a duplicate is reported without
+     * creating an exception.
      * 
-     * @param in          the element to be inserted
-     * @param currentNode node being considered
-     * @param parent      parent node of {@code currentNode}
+     * @param in the element to be inserted
+     * @return true if the element was inserted, false if it was already present
+     */
+    public boolean insertIfAbsent(int in) {
+        if (root == null) {
+            root = newNode(in);
+            return true;
+        }
+
+        NodeBS currentNode = root;
+        pathLength = 0;
+        while (true) {
+            record(currentNode);
+
+            if (in < currentNode.element) {
+                if (currentNode.left == null) {
+                    currentNode.left = newNode(in);
+                    break;
+                }
+                currentNode = currentNode.left;
+            } else if (in > currentNode.element) {
+                if (currentNode.right == null) {
+                    currentNode.right = newNode(in);
+                    break;
+                }
+                currentNode = currentNode.right;
+            } else
+                return false;
+        }
+
+        updateInsertionPath();
+        return true;
+    }
+
+    /**
+     * Inserts a new node with the specified value using the parent pointer
+     * approach.
+     * 
+     * @param in the element to be inserted
      * @throws Exception if the specified element is already present in the tree
      */
-    private void insertByParent(int in, NodeBS currentNode, NodeBS parent) throws Exception {
-        if (currentNode == null) {
-            if (in < parent.element)
-                parent.left = new NodeBS(in);
+    public void insertByParent(int in) throws Exception {
+        NodeBS currentNode = root, parent = null;
+
+        pathLength = 0;
+        while (currentNode != null) {
+            parent = currentNode;
+            record(currentNode);
+
+            if (in < currentNode.element)
+                currentNode = currentNode.left;
+            else if (in > currentNode.element)
+                currentNode = currentNode.right;
             else
-                parent.right = new NodeBS(in);
-        } else if (in < currentNode.element)
-            insertByParent(in, currentNode.left, currentNode);
-        else if (in > currentNode.element)
-            insertByParent(in, currentNode.right, currentNode);
+                throw new Exception("Error! The specified element is already present in the tree.");
+        }
+
+        if (parent == null)
+            root = newNode(in);
+        else if (in < parent.element)
+            parent.left = newNode(in);
         else
-            throw new Exception("Error! The specified element is already present in the tree.");
+            parent.right = newNode(in);
+
+        updateInsertionPath();
     }
 
     /**
      * Removes the specified element from the {@code BinarySearchTree}.
      * 
      * @param toBeRemoved the element to be removed
-     * @throws Exception if the binary tree is empty
+     * @throws EmptyTreeException if the element is not present in the tree
      */
     public void remove(int toBeRemoved) throws EmptyTreeException {
-        root = remove(toBeRemoved, root);
+        if (!removeIfPresent(toBeRemoved))
+            throw new EmptyTreeException("Error! The binary search tree is empty.");
     }
 
     /**
-     * Method to remove the specified element from the {@code BinarySearchTree}.
+     * Removes the specified element from the {@code BinarySearchTree} if it is
+     * present. Unlike {@code remove}, a missing element is reported without
+     * creating an exception.
      * 
      * @param toBeRemoved the element to be removed
-     * @param currentNode node being checked
-     * @return updated node after removal
-     * @throws EmptyTreeException if the binary tree is empty
+     * @return true if the element was removed, false if it was not present
      */
-    private NodeBS remove(int toBeRemoved, NodeBS currentNode) throws EmptyTreeException {
+    public boolean removeIfPresent(int toBeRemoved) {
+        NodeBS currentNode = root, parent = null;
+
+        pathLength = 0;
+        while (currentNode != null && toBeRemoved != currentNode.element) {
+            parent = currentNode;
+            record(currentNode);
+            currentNode = (toBeRemoved < currentNode.element) ? currentNode.left : currentNode.right;
+        }
+
         if (currentNode == null)
-            throw new EmptyTreeException("Error! The binary search tree is empty.");
-        else if (toBeRemoved < currentNode.element)
-            currentNode.left = remove(toBeRemoved, currentNode.left);
-        else if (toBeRemoved > currentNode.element)
-            currentNode.right = remove(toBeRemoved, currentNode.right);
-        else if (currentNode.right == null)
-            currentNode = currentNode.left;
-        else if (currentNode.left == null)
-            currentNode = currentNode.right;
-        else
-            currentNode.left = findMaxLeft(currentNode, currentNode.left);
+            return false;
 
-        return currentNode;
+        removeNode(currentNode, parent);
+        updatePath();
+        return true;
     }
 
     /**
@@ -191,71 +481,195 @@ public class BinarySearchTree {
      * properties.
      * 
      * @param toBeRemoved element to be removed
-     * @throws EmptyTreeException if the binary tree is empty
+     * @throws EmptyTreeException if the element is not present in the tree
      */
     public void removeByParent(int toBeRemoved) throws EmptyTreeException {
-        if (root == null)
-            throw new EmptyTreeException("Error! The binary search tree is empty.");
-        else if (toBeRemoved < root.element)
-            removeByParent(toBeRemoved, root.left, root);
-        else if (toBeRemoved > root.element)
-            removeByParent(toBeRemoved, root.right, root);
-        else if (root.right == null)
-            root = root.left;
-        else if (root.left == null)
-            root = root.right;
-        else
-            root.left = findMaxLeft(root, root.left);
+        NodeBS currentNode = root, parent = null;
+
+        pathLength = 0;
+        while (currentNode != null) {
+            if (toBeRemoved < currentNode.element) {
+                parent = currentNode;
+                currentNode = currentNode.left;
+            } else if (toBeRemoved > currentNode.element) {
+                parent = currentNode;
+                currentNode = currentNode.right;
+            } else {
+                removeNode(currentNode, parent);
+                updatePath();
+                return;
+            }
+            record(parent);
+        }
+
+        throw new EmptyTreeException("Error! The binary search tree is empty.");
     }
 
     /**
-     * Helper method to remove the specified element from the
-     * {@code BinarySearchTree}. The removal process maintains the data structure
-     * properties.
+     * Unlinks the given node from the {@code BinarySearchTree}. A node with two
+     * children takes the maximum element of its left subtree instead.
      * 
-     * @param toBeRemoved the element to be removed
-     * @param currentNode node being considered
-     * @param parent      parent of the current node
-     * @throws EmptyTreeException if the binary tree is empty
+     * @param currentNode node to be removed
+     * @param parent      parent of the {@code currentNode}, or null for the root
      */
-    private void removeByParent(int toBeRemoved, NodeBS currentNode, NodeBS parent) throws EmptyTreeException {
-        if (currentNode == null)
-            throw new EmptyTreeException("Error! The binary search tree is empty.");
-        else if (toBeRemoved < currentNode.element)
-            removeByParent(toBeRemoved, currentNode.left, currentNode);
-        else if (toBeRemoved > currentNode.element)
-            removeByParent(toBeRemoved, currentNode.right, currentNode);
-        else if (currentNode.right == null) {
-            if (toBeRemoved < parent.element)
-                parent.left = currentNode.left;
-            else
-                parent.right = currentNode.left;
-        } else if (currentNode.left == null) {
-            if (toBeRemoved < parent.element)
-                parent.left = currentNode.right;
-            else
-                parent.right = currentNode.right;
-        } else
-            currentNode.left = findMaxLeft(currentNode, currentNode.left);
+    private void removeNode(NodeBS currentNode, NodeBS parent) {
+        NodeBS replacement;
+
+        if (currentNode.right == null)
+            replacement = currentNode.left;
+        else if (currentNode.left == null)
+            replacement = currentNode.right;
+        else {
+            findMaxLeft(currentNode);
+            return;
+        }
+
+        if (parent == null)
+            root = replacement;
+        else if (parent.left == currentNode)
+            parent.left = replacement;
+        else
+            parent.right = replacement;
     }
 
     /**
      * Finds the maximum element on the left subtree of the current node during
-     * removal.
+     * removal, moves it into the {@code currentNode} and unlinks its old node.
      * 
-     * @param currentNode     node being checked
-     * @param currentNodeLeft left child of the {@code currentNode}
-     * @return the updated left child after finfing and replacing the maximum
-     *         element
+     * @param currentNode node being removed
      */
-    private NodeBS findMaxLeft(NodeBS currentNode, NodeBS currentNodeLeft) {
-        if (currentNodeLeft.right == null) {
-            currentNode.element = currentNodeLeft.element;
-            currentNodeLeft = currentNodeLeft.left;
-        } else
-            currentNodeLeft.right = findMaxLeft(currentNode, currentNodeLeft.right);
+    private void findMaxLeft(NodeBS currentNode) {
+        NodeBS parentMax = currentNode, max = currentNode.left;
+
+        record(currentNode);
+        while (max.right != null) {
+            parentMax = max;
+            record(max);
+            max = max.right;
+        }
 
-        return currentNodeLeft;
+        currentNode.element = max.element;
+        if (parentMax == currentNode)
+            parentMax.left = max.left;
+        else
+            parentMax.right = max.left;
+    }
+
+    /**
+     * Creates a node for the given element, augmented or not according to the
+     * {@code BinarySearchTree} configuration.
+     * 
+     * @param in element to be stored
+     * @return the new leaf node
+     */
+    private NodeBS newNode(int in) {
+        return augmented ? new NodeBSAugmented(in) : new NodeBS(in);
+    }
+
+    /**
+     * Records a node whose subtree is about to change, so its size and level can
+     * be updated afterwards. Does nothing when the nodes are not augmented.
+     * 
+     * @param node on the path of the current operation
+     */
+    private void record(NodeBS node) {
+        if (augmented) {
+            if (pathLength == path.length)
+                path = Arrays.copyOf(path, pathLength << 1);
+            path[pathLength++] = node;
+        }
+    }
+
+    /**
+     * Recalculates size and level of the ancestors of a new node, from the
+     * deepest one up to the root, and clears the path. If automatic rebalance is
+     * enabled and the new node is too deep, the lowest ancestor whose larger child
+     * holds more than {@code 2^(-1/factor)} of its subtree is rebuilt on the way.
+     */
+    private void updateInsertionPath() {
+        if (rebalanceFactor == 0
+                || pathLength <= rebalanceFactor * Math.log(NodeBSAugmented.getSize(path[0]) + 1) / Math.log(2)) {
+            updatePath();
+            return;
+        }
+
+        double alpha = Math.pow(2, -1 / rebalanceFactor);
+        boolean rebuilt = false;
+
+        while (pathLength > 0) {
+            NodeBSAugmented node = (NodeBSAugmented) path[--pathLength];
+            path[pathLength] = null;
+            node.update();
+
+            int larger = Math.max(NodeBSAugmented.getSize(node.left), NodeBSAugmented.getSize(node.right));
+            if (!rebuilt && larger > alpha * node.size) {
+                NodeBS subtree = rebuild(node);
+                updateCounters(subtree);
+
+                NodeBS parent = (pathLength == 0) ? null : path[pathLength - 1];
+                if (parent == null)
+                    root = subtree;
+                else if (parent.left == node)
+                    parent.left = subtree;
+                else
+                    parent.right = subtree;
+
+                rebuilt = true;
+            }
+        }
+    }
+
+    /**
+     * Recalculates size and level of the recorded nodes, from the deepest one up
+     * to the root, and clears the path.
+     */
+    private void updatePath() {
+        while (pathLength > 0) {
+            ((NodeBSAugmented) path[--pathLength]).update();
+            path[pathLength] = null;
+        }
+    }
+
+    /**
+     * Returns a lazy iterator over the elements of the {@code BinarySearchTree} in
+     * pre-order.
+     * 
+     * @return the pre-order iterator
+     */
+    public PrimitiveIterator.OfInt preOrderIterator() {
+        return new NodeIterator(root, TreeIterator.Order.PRE_ORDER);
+    }
+
+    /**
+     * Returns a lazy iterator over the elements of the {@code BinarySearchTree} in
+     * ascending order.
+     * 
+     * @return the in-order iterator
+     */
+    public PrimitiveIterator.OfInt inOrderIterator() {
+        return new NodeIterator(root, TreeIterator.Order.IN_ORDER);
+    }
+
+    /**
+     * Returns a lazy iterator over the elements of the {@code BinarySearchTree} in
+     * post-order.
+     * 
+     * @return the post-order iterator
+     */
+    public PrimitiveIterator.OfInt postOrderIterator() {
+        return new NodeIterator(root, TreeIterator.Order.POST_ORDER);
+    }
+
+    /**
+     * Returns a lazy iterator over the elements {@code x} of the
+     * {@code BinarySearchTree} with {@code lo <= x <= hi}, in ascending order.
+     * 
+     * @param lo smallest element of the range
+     * @param hi largest element of the range
+     * @return the range iterator
+     */
+    public PrimitiveIterator.OfInt range(int lo, int hi) {
+        return new NodeIterator(root, lo, hi);
     }
 
     public void preOrderTraversal() {
@@ -312,4 +726,34 @@ public class BinarySearchTree {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Gives {@code TreeIterator} access to the nodes of the {@code BinarySearchTree}.
+     */
+    private static class NodeIterator extends TreeIterator<NodeBS> {
+
+        NodeIterator(NodeBS root, Order order) {
+            super(root, order);
+        }
+
+        NodeIterator(NodeBS root, int lo, int hi) {
+            super(root, lo, hi);
+        }
+
+        @Override
+        protected NodeBS left(NodeBS node) {
+            return node.left;
+        }
+
+        @Override
+        protected NodeBS right(NodeBS node) {
+            return node.right;
+        }
+
+        @Override
+        protected int element(NodeBS node) {
+            return node.element;
+        }
+
+    }
+
+}
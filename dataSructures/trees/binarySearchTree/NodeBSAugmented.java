@@ -0,0 +1,67 @@
+package trees.binarySearchTree;
+
+/**
+ * Represents a node in a binary search tree that also keeps the size and the
+ * number of levels of the subtree rooted at it, so both can be read in
+ * constant time. The two counters cost 8 extra bytes per node.
+ * 
+ * @author raickmiranda
+ * @summary Represents a node in a binary tree augmented with size and level.
+ * @version 1.0
+ */
+
+public class NodeBSAugmented extends NodeBS {
+
+    protected int size, level;
+
+    /**
+     * Creates a leaf node with the given element, size 1 and level 1.
+     * 
+     * @param element to be stored
+     */
+    NodeBSAugmented(int element) {
+        this(element, null, null);
+    }
+
+    /**
+     * Creates a node with the given element and children, computing its size and
+     * level from them.
+     * 
+     * @param element to be stored
+     * @param left    child node reference
+     * @param right   child node reference
+     */
+    NodeBSAugmented(int element, NodeBS left, NodeBS right) {
+        super(element, left, right);
+        update();
+    }
+
+    /**
+     * Recalculates the size and the level of the node from its children.
+     */
+    protected void update() {
+        this.size = 1 + getSize(left) + getSize(right);
+        this.level = 1 + Math.max(getLevel(left), getLevel(right));
+    }
+
+    /**
+     * Returns the number of nodes in the subtree rooted at the given node.
+     * 
+     * @param node being considered
+     * @return the size of the subtree, 0 for null
+     */
+    public static int getSize(NodeBS node) {
+        return (node == null) ? 0 : ((NodeBSAugmented) node).size;
+    }
+
+    /**
+     * Returns the number of levels of the subtree rooted at the given node.
+     * 
+     * @param node being considered
+     * @return the number of levels of the subtree, 0 for null
+     */
+    public static int getLevel(NodeBS node) {
+        return (node == null) ? 0 : ((NodeBSAugmented) node).level;
+    }
+
+}
@@ -0,0 +1,431 @@
+package trees.redBlackTree;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.IntStream;
+
+/**
+ * Benchmarks for the {@code RedBlackTree}. The first argument selects the scenario
+ * and the second one the number of keys.
+ * 
+ * @author raickmiranda
+ * @summary Benchmarks of the red-black tree operations.
+ * @version 1.0
+ */
+
+public class BenchmarkRB {
+
+    public static void main(String[] args) throws Exception {
+        String scenario = (args.length > 0) ? args[0] : "rank";
+        int size = (args.length > 1) ? Integer.parseInt(args[1]) : 1_000_000;
+
+        switch (scenario) {
+            case "rank":
+                rank(size);
+                break;
+            case "check":
+                check(size);
+                break;
+            case "remove":
+                remove(size);
+                break;
+            case "insert":
+                insert(size);
+                break;
+            case "contention":
+                contention(size);
+                break;
+            case "offheap":
+                offHeap(size);
+                break;
+            default:
+                System.out.println("Unknown scenario: " + scenario);
+        }
+    }
+
+    /**
+     * Compares {@code rank} and {@code select}, which use the subtree sizes, with
+     * answering the same queries through an in-order traversal.
+     * 
+     * @param size number of keys in the tree
+     */
+    private static void rank(int size) throws Exception {
+        RedBlackTree tree = new RedBlackTree();
+        Random random = new Random(42);
+        for (int key : random.ints(size).distinct().toArray())
+            tree.insert(key);
+
+        int queries = 1_000, traversalQueries = 3;
+        int[] keys = random.ints(queries).toArray();
+        long checksum = 0;
+
+        for (int round = 1; round <= 5; round++) {
+            long ranked = -System.nanoTime();
+            for (int key : keys)
+                checksum += tree.rank(key) + tree.select(tree.size() - 1 - (key & 0xFF));
+            ranked += System.nanoTime();
+
+            long traversed = -System.nanoTime();
+            for (int i = 0; i < traversalQueries; i++)
+                checksum -= traversalRank(tree, keys[i]);
+            traversed += System.nanoTime();
+
+            System.out.printf("round %d: rank+select %.0f ns/query, traversal %.0f ns/query%n", round,
+                    (double) ranked / queries, (double) traversed / traversalQueries);
+        }
+        System.out.println("checksum " + checksum);
+    }
+
+    /**
+     * Applies random insertions and removals to a {@code RedBlackTree} and a
+     * {@code TreeSet}, checking the red-black invariants and comparing both sets
+     * as it goes. Small key ranges make most operations hit present keys.
+     * 
+     * @param size number of operations per round
+     */
+    private static void check(int size) {
+        Random random = new Random(42);
+
+        for (int round = 1; round <= 20; round++) {
+            RedBlackTree tree = new RedBlackTree();
+            TreeSet<Integer> expected = new TreeSet<>();
+            int keyRange = 1 + random.nextInt((round % 2 == 0) ? 64 : 4 * size);
+
+            for (int i = 0; i < size; i++) {
+                int key = random.nextInt(keyRange);
+                boolean changed = random.nextBoolean() ? tree.insertIfAbsent(key) == expected.add(key)
+                        : tree.removeIfPresent(key) == expected.remove(key);
+
+                if (!changed || tree.size() != expected.size() || tree.search(key) != expected.contains(key))
+                    throw new IllegalStateException("Error! The tree differs from the expected set at " + key + ".");
+                if (i % 64 == 0 || i == size - 1)
+                    tree.checkInvariants();
+            }
+
+            int index = 0;
+            for (int key : expected)
+                if (tree.select(index++) != key)
+                    throw new IllegalStateException("Error! The tree differs from the expected set in order.");
+        }
+        System.out.println("20 rounds of " + size + " operations ok");
+    }
+
+    /**
+     * Measures removals from the {@code RedBlackTree}: removing half of the keys
+     * in random order, a churn of alternating removals and insertions, and, for
+     * comparison, rebuilding the remaining half from scratch.
+     * 
+     * @param size number of keys in the tree
+     */
+    private static void remove(int size) {
+        Random random = new Random(42);
+        int[] keys = random.ints(size).distinct().toArray();
+        long checksum = 0;
+
+        for (int round = 1; round <= 5; round++) {
+            RedBlackTree tree = new RedBlackTree();
+            for (int key : keys)
+                tree.insertIfAbsent(key);
+            shuffle(keys, random);
+
+            int half = keys.length / 2;
+            long removed = -System.nanoTime();
+            for (int i = 0; i < half; i++)
+                checksum += tree.removeIfPresent(keys[i]) ? 1 : 0;
+            removed += System.nanoTime();
+
+            long churned = -System.nanoTime();
+            for (int i = 0; i < half; i++) {
+                checksum += tree.removeIfPresent(keys[half + i]) ? 1 : 0;
+                checksum += tree.insertIfAbsent(keys[i]) ? 1 : 0;
+            }
+            churned += System.nanoTime();
+
+            long rebuilt = -System.nanoTime();
+            RedBlackTree rebuild = new RedBlackTree();
+            for (int i = 0; i < half; i++)
+                rebuild.insertIfAbsent(keys[i]);
+            rebuilt += System.nanoTime();
+            checksum += rebuild.size() + tree.size();
+
+            System.out.printf("round %d: remove %.2f M ops/s, remove+insert %.2f M ops/s, rebuild of %d keys %.1f ms%n",
+                    round, half * 1e3 / removed, 2 * half * 1e3 / churned, half, rebuilt / 1e6);
+        }
+        System.out.println("checksum " + checksum);
+    }
+
+    /**
+     * Measures insertions into an empty {@code RedBlackTree}, with the keys in
+     * random order and in ascending order.
+     * 
+     * @param size number of keys to insert
+     */
+    private static void insert(int size) {
+        int[] random = new Random(42).ints(size).toArray();
+        int[] sorted = IntStream.range(0, size).toArray();
+        long checksum = 0;
+
+        for (int round = 1; round <= 5; round++) {
+            long randomTime = -System.nanoTime();
+            RedBlackTree tree = new RedBlackTree();
+            for (int key : random)
+                tree.insertIfAbsent(key);
+            randomTime += System.nanoTime();
+            checksum += tree.size();
+
+            long sortedTime = -System.nanoTime();
+            tree = new RedBlackTree();
+            for (int key : sorted)
+                tree.insertIfAbsent(key);
+            sortedTime += System.nanoTime();
+            checksum += tree.size();
+
+            System.out.printf("round %d: random %.2f M inserts/s, sorted %.2f M inserts/s%n", round,
+                    size * 1e3 / randomTime, size * 1e3 / sortedTime);
+        }
+        System.out.println("checksum " + checksum);
+    }
+
+    /**
+     * Measures the throughput of a {@code ShardedRedBlackTree} and of a single
+     * {@code RedBlackTree} behind one {@code StampedLock}, with writers spread
+     * over the whole key range and with all of them on a hot range of 1/64 of
+     * it, which the sharded set has to split to spread.
+     * 
+     * @param size number of keys in the sets
+     */
+    private static void contention(int size) throws Exception {
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        for (int hotPercent : new int[] { 0, 100 })
+            for (int readPercent : new int[] { 90, 50, 0 })
+                for (int threads = 1; threads <= 2 * processors; threads <<= 1) {
+                    ShardedRedBlackTree sharded = new ShardedRedBlackTree();
+                    RedBlackTree single = new RedBlackTree();
+                    StampedLock lock = new StampedLock();
+
+                    for (int key : new Random(42).ints(size).toArray()) {
+                        sharded.insertIfAbsent(key);
+                        single.insertIfAbsent(key);
+                    }
+
+                    double shardedTree = throughput(threads, readPercent, hotPercent, new Operations() {
+                        public boolean search(int key) {
+                            return sharded.search(key);
+                        }
+
+                        public boolean insert(int key) {
+                            return sharded.insertIfAbsent(key);
+                        }
+
+                        public boolean remove(int key) {
+                            return sharded.removeIfPresent(key);
+                        }
+                    });
+                    double lockedTree = throughput(threads, readPercent, hotPercent, new Operations() {
+                        public boolean search(int key) {
+                            long stamp = lock.readLock();
+                            try {
+                                return single.search(key);
+                            } finally {
+                                lock.unlockRead(stamp);
+                            }
+                        }
+
+                        public boolean insert(int key) {
+                            long stamp = lock.writeLock();
+                            try {
+                                return single.insertIfAbsent(key);
+                            } finally {
+                                lock.unlockWrite(stamp);
+                            }
+                        }
+
+                        public boolean remove(int key) {
+                            long stamp = lock.writeLock();
+                            try {
+                                return single.removeIfPresent(key);
+                            } finally {
+                                lock.unlockWrite(stamp);
+                            }
+                        }
+                    });
+
+                    System.out.printf("%s, %3d%% reads, %2d threads: sharded %6.2f (%d shards), locked %6.2f Mops/s%n",
+                            (hotPercent == 0) ? "uniform" : "hot    ", readPercent, threads, shardedTree,
+                            sharded.shardCount(), lockedTree);
+                }
+    }
+
+    /**
+     * Operations on one of the sets measured by {@code contention}.
+     */
+    private interface Operations {
+        boolean search(int key);
+
+        boolean insert(int key);
+
+        boolean remove(int key);
+    }
+
+    /**
+     * Runs random operations from the given number of threads for half a second.
+     * The given percentage of the keys falls into the lowest 1/64 of the
+     * {@code int} range.
+     * 
+     * @return millions of operations per second
+     */
+    private static double throughput(int threads, int readPercent, int hotPercent, Operations operations)
+            throws Exception {
+        LongAdder done = new LongAdder();
+        long deadline = System.nanoTime() + 500_000_000L;
+        Thread[] workers = new Thread[threads];
+
+        for (int i = 0; i < threads; i++) {
+            SplittableRandom random = new SplittableRandom(i);
+            workers[i] = new Thread(() -> {
+                long count = 0;
+
+                while ((count & 0xFF) != 0 || System.nanoTime() < deadline) {
+                    int key = random.nextInt(), choice = random.nextInt(100);
+
+                    if (random.nextInt(100) < hotPercent)
+                        key = Integer.MIN_VALUE + (key >>> 6);
+                    if (choice < readPercent)
+                        operations.search(key);
+                    else if ((choice & 1) == 0)
+                        operations.insert(key);
+                    else
+                        operations.remove(key);
+                    count++;
+                }
+                done.add(count);
+            });
+        }
+
+        long elapsed = -System.nanoTime();
+        for (Thread worker : workers)
+            worker.start();
+        for (Thread worker : workers)
+            worker.join();
+        elapsed += System.nanoTime();
+
+        return done.sum() * 1e3 / elapsed;
+    }
+
+    /**
+     * Compares a {@code RedBlackTree} with an {@code OffHeapRedBlackTree} holding
+     * the same keys: the heap each one takes, the time of a full collection while
+     * it is alive and the time of a search.
+     * 
+     * @param size number of keys in the trees
+     */
+    private static void offHeap(int size) {
+        int[] keys = new Random(42).ints(size).toArray();
+        int[] lookups = new Random(7).ints(size).toArray();
+        for (int i = 0; i < lookups.length; i += 2)
+            lookups[i] = keys[i];
+
+        long before = usedMemory();
+        RedBlackTree objects = new RedBlackTree();
+        for (int key : keys)
+            objects.insertIfAbsent(key);
+        long objectBytes = usedMemory() - before;
+        long objectPause = collectionTime();
+
+        int found = 0;
+        long objectSearch = -System.nanoTime();
+        for (int key : lookups)
+            if (objects.search(key))
+                found++;
+        objectSearch += System.nanoTime();
+        objects = null;
+
+        before = usedMemory();
+        try (OffHeapRedBlackTree offHeap = new OffHeapRedBlackTree()) {
+            for (int key : keys)
+                offHeap.insertIfAbsent(key);
+            long offHeapBytes = usedMemory() - before;
+            long offHeapPause = collectionTime();
+
+            long offHeapSearch = -System.nanoTime();
+            for (int key : lookups)
+                if (offHeap.search(key))
+                    found--;
+            offHeapSearch += System.nanoTime();
+
+            System.out.printf("RedBlackTree %.1f heap bytes/key, full GC %.1f ms, search %.1f ns/op%n",
+                    (double) objectBytes / size, objectPause / 1e6, (double) objectSearch / size);
+            System.out.printf("OffHeapRedBlackTree %.1f heap + %.1f off-heap bytes/key, full GC %.1f ms, search %.1f ns/op%s%n",
+                    (double) offHeapBytes / size, (double) offHeap.footprint() / size, offHeapPause / 1e6,
+                    (double) offHeapSearch / size, (found == 0) ? "" : " MISMATCH");
+        }
+    }
+
+    /**
+     * Returns the heap in use after a garbage collection.
+     */
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+
+        for (int i = 0; i < 3; i++)
+            System.gc();
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Returns the best time of a few full collections, in nanoseconds.
+     */
+    private static long collectionTime() {
+        long best = Long.MAX_VALUE;
+
+        for (int i = 0; i < 3; i++) {
+            long time = -System.nanoTime();
+            System.gc();
+            best = Math.min(best, time + System.nanoTime());
+        }
+
+        return best;
+    }
+
+    /**
+     * Shuffles the keys in place.
+     */
+    private static void shuffle(int[] keys, Random random) {
+        for (int i = keys.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1), key = keys[i];
+            keys[i] = keys[j];
+            keys[j] = key;
+        }
+    }
+
+    /**
+     * Counts the elements smaller than the key from the printed in-order
+     * traversal, which is how the position of a key was found before.
+     */
+    private static int traversalRank(RedBlackTree tree, int key) {
+        PrintStream console = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+
+        System.setOut(new PrintStream(captured));
+        try {
+            tree.inOrderTraversal();
+        } finally {
+            System.setOut(console);
+        }
+
+        int rank = 0;
+        for (String line : captured.toString().split("\n"))
+            if (Integer.parseInt(line.trim().split(" ")[0]) < key)
+                rank++;
+
+        return rank;
+    }
+
+}
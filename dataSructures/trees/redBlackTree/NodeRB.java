@@ -14,7 +14,7 @@ package trees.redBlackTree;
 public class NodeRB {
 
     protected boolean color;
-    protected int element;
+    protected int element, size;
     protected NodeRB left, right;
 
     /**
@@ -57,6 +57,58 @@ public class NodeRB {
         this.element = element;
         this.left = left;
         this.right = right;
+        setSize();
+    }
+
+    /**
+     * Calculates the number of nodes in the subtree rooted at the current node
+     * and updates the size variable.
+     */
+    protected void setSize() {
+        this.size = 1 + getSize(left) + getSize(right);
+    }
+
+    /**
+     * Returns the child in the given direction.
+     * 
+     * @param direction negative for the left child, positive for the right one
+     * @return the child node
+     */
+    protected NodeRB child(int direction) {
+        return (direction < 0) ? left : right;
+    }
+
+    /**
+     * Replaces the child in the given direction.
+     * 
+     * @param direction negative for the left child, positive for the right one
+     * @param child     new child node
+     */
+    protected void setChild(int direction, NodeRB child) {
+        if (direction < 0)
+            left = child;
+        else
+            right = child;
+    }
+
+    /**
+     * Checks whether the given node is red.
+     * 
+     * @param node being considered
+     * @return true if the node is red, false if it is black or null
+     */
+    public static boolean isRed(NodeRB node) {
+        return node != null && node.color;
+    }
+
+    /**
+     * Returns the number of nodes in the subtree rooted at the given node.
+     * 
+     * @param node being considered
+     * @return the number of nodes in the subtree, 0 for null
+     */
+    public static int getSize(NodeRB node) {
+        return (node == null) ? 0 : node.size;
     }
 
 }
\ No newline at end of file
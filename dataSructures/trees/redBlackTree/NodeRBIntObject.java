@@ -0,0 +1,43 @@
+package trees.redBlackTree;
+
+/**
+ * The NodeRBIntObject class represents a node of a Red-Black map from
+ * {@code int} keys to object values. The key is kept as a primitive, so it is
+ * never boxed.
+ *
+ * @author raickmiranda
+ * @summary Represents a node in a Red-Black map with primitive keys.
+ * @version 1.0
+ * @param <V> type of the values
+ */
+
+public class NodeRBIntObject<V> {
+
+    protected boolean color;
+    protected final int key;
+    protected V value;
+    protected NodeRBIntObject<V> left, right;
+
+    /**
+     * Creates a red leaf with the given key and value.
+     *
+     * @param key   of the entry
+     * @param value of the entry
+     */
+    NodeRBIntObject(int key, V value) {
+        this.color = true;
+        this.key = key;
+        this.value = value;
+    }
+
+    /**
+     * Checks whether the given node is red.
+     *
+     * @param node being considered
+     * @return true if the node is red, false if it is black or null
+     */
+    public static boolean isRed(NodeRBIntObject<?> node) {
+        return node != null && node.color;
+    }
+
+}
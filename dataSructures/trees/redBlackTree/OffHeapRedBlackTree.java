@@ -0,0 +1,415 @@
+package trees.redBlackTree;
+
+/**
+ * The OffHeapRedBlackTree class represents a Red-Black tree whose nodes live
+ * outside the Java heap, in direct {@code ByteBuffer} chunks. A node is the
+ * index of a 12-byte record holding the element and the indices of its two
+ * children; the color is the lowest bit of the left child field. The garbage
+ * collector thus sees a few buffers instead of one object per key.
+ * <p>
+ * The arena grows by adding chunks, so nodes never move and iterators survive
+ * its growth. An iterator also survives insertions made while it is in use: it
+ * then finds its place again from the last element it returned. The buffers
+ * are dropped by {@code close()}, after which the tree can no longer be used.
+ *
+ * @author raickmiranda
+ * @summary Represents a Red-Black tree stored off-heap.
+ * @version 1.0
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+public class OffHeapRedBlackTree implements AutoCloseable {
+
+    // node record: element, left child << 1 | red, right child
+    private static final int NODE_BYTES = 12;
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_NODES = 1 << CHUNK_BITS;
+    // index 0 stands for null and is never handed out
+    private static final int NIL = 0;
+
+    private ByteBuffer[] chunks;
+    private int root, used, size, modifications;
+
+    /**
+     * Constructs an empty {@code OffHeapRedBlackTree} with a single chunk.
+     */
+    OffHeapRedBlackTree() {
+        chunks = new ByteBuffer[] { newChunk() };
+        root = NIL;
+        used = 1;
+        size = 0;
+    }
+
+    /**
+     * Returns the number of elements in the {@code OffHeapRedBlackTree}.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of off-heap bytes held by the
+     * {@code OffHeapRedBlackTree}, including the records not in use.
+     *
+     * @return the footprint of the chunks in bytes
+     */
+    public long footprint() {
+        return (chunks == null) ? 0 : (long) ((used - 1) / CHUNK_NODES + 1) * CHUNK_NODES * NODE_BYTES;
+    }
+
+    /**
+     * Searches for the specified key in the {@code OffHeapRedBlackTree}.
+     *
+     * @param key to be searched
+     * @return true if the key is found in the tree, false otherwise
+     * @throws IllegalStateException if the tree is closed
+     */
+    public boolean search(int key) {
+        checkOpen();
+
+        int currentNode = root;
+        while (currentNode != NIL) {
+            int element = element(currentNode);
+
+            if (key == element)
+                return true;
+            currentNode = (key < element) ? left(currentNode) : right(currentNode);
+        }
+
+        return false;
+    }
+
+    /**
+     * Inserts a new element into the {@code OffHeapRedBlackTree}.
+     *
+     * @param in element to be inserted
+     * @throws Exception if the specified element is already present in the tree
+     */
+    public void insert(int in) throws Exception {
+        if (!insertIfAbsent(in))
+            throw new Exception("Error! The specified element is already present in the tree.");
+    }
+
+    /**
+     * Inserts a new element into the {@code OffHeapRedBlackTree} unless it is
+     * already present, without creating an exception for a duplicate. Like
+     * {@code RedBlackTree}, it descends once from the root, turning every node
+     * with two red children red and its children black, and fixing a red node
+     * under a red parent by a rotation at the grandparent.
+     *
+     * @param in element to be inserted
+     * @return true if the element was inserted, false if it was already present
+     * @throws IllegalStateException if the tree is closed
+     */
+    public boolean insertIfAbsent(int in) {
+        checkOpen();
+
+        int greatGrandParent = NIL, grandParent = NIL, parent = NIL, currentNode = root;
+
+        while (currentNode != NIL) {
+            int element = element(currentNode);
+            if (in == element)
+                return false;
+
+            if (isRed(left(currentNode)) && isRed(right(currentNode))) { // frag
+                setRed(left(currentNode), false);
+                setRed(right(currentNode), false);
+
+                if (currentNode != root) { // root can't be colored
+                    setRed(currentNode, true);
+
+                    if (isRed(parent)) {
+                        // the rotated subtree has a black root, so the descent
+                        // goes on from it with its parent as the only ancestor
+                        currentNode = rebalance(greatGrandParent, grandParent, parent, currentNode);
+                        parent = greatGrandParent;
+                        grandParent = greatGrandParent = NIL;
+                        element = element(currentNode);
+                    }
+                }
+            }
+
+            greatGrandParent = grandParent;
+            grandParent = parent;
+            parent = currentNode;
+            currentNode = (in < element) ? left(currentNode) : right(currentNode);
+        }
+
+        int node = allocate(in);
+        if (parent == NIL)
+            root = node;
+        else {
+            if (in < element(parent))
+                setLeft(parent, node);
+            else
+                setRight(parent, node);
+
+            if (isRed(parent))
+                rebalance(greatGrandParent, grandParent, parent, node);
+        }
+
+        setRed(root, false);
+        size++;
+        modifications++;
+        return true;
+    }
+
+    /**
+     * Releases the chunks of the {@code OffHeapRedBlackTree}. Their memory is
+     * returned once the buffers are collected, and any later use of the tree or
+     * of its iterators fails.
+     */
+    @Override
+    public void close() {
+        chunks = null;
+        root = NIL;
+        size = 0;
+        modifications++;
+    }
+
+    /**
+     * Returns a lazy iterator over the elements of the
+     * {@code OffHeapRedBlackTree} in ascending order.
+     *
+     * @return the in-order iterator
+     * @throws IllegalStateException if the tree is closed
+     */
+    public PrimitiveIterator.OfInt inOrderIterator() {
+        return range(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns a lazy iterator over the elements {@code x} of the
+     * {@code OffHeapRedBlackTree} with {@code lo <= x <= hi}, in ascending order.
+     *
+     * @param lo smallest element of the range
+     * @param hi largest element of the range
+     * @return the range iterator
+     * @throws IllegalStateException if the tree is closed
+     */
+    public PrimitiveIterator.OfInt range(int lo, int hi) {
+        checkOpen();
+
+        return new NodeIterator(lo, hi);
+    }
+
+    /**
+     * Fixes a red node under a red parent by a single or double rotation at the
+     * grandparent, linking the rotated subtree back under the great-grandparent.
+     *
+     * @param greatGrandParent node of the {@code currentNode}, NIL for the root
+     * @param grandParent      node of the {@code currentNode}
+     * @param parent           node of the {@code currentNode}
+     * @param currentNode      red node under a red parent
+     * @return the black root of the rotated subtree
+     */
+    private int rebalance(int greatGrandParent, int grandParent, int parent, int currentNode) {
+        int subtreeRoot;
+
+        if (parent == right(grandParent)) {
+            if (currentNode == left(parent))
+                setRight(grandParent, rightRotation(parent));
+            subtreeRoot = leftRotation(grandParent);
+        } else {
+            if (currentNode == right(parent))
+                setLeft(grandParent, leftRotation(parent));
+            subtreeRoot = rightRotation(grandParent);
+        }
+
+        if (greatGrandParent == NIL)
+            root = subtreeRoot;
+        else if (left(greatGrandParent) == grandParent)
+            setLeft(greatGrandParent, subtreeRoot);
+        else
+            setRight(greatGrandParent, subtreeRoot);
+
+        setRed(subtreeRoot, false);
+        setRed(left(subtreeRoot), true);
+        setRed(right(subtreeRoot), true);
+
+        return subtreeRoot;
+    }
+
+    /**
+     * Performs a left rotation on the specified node.
+     *
+     * @param node to be rotated
+     * @return the new root of the rotated subtree
+     */
+    private int leftRotation(int node) {
+        int nodeRight = right(node);
+
+        setRight(node, left(nodeRight));
+        setLeft(nodeRight, node);
+
+        return nodeRight;
+    }
+
+    /**
+     * Performs a right rotation on the specified node.
+     *
+     * @param node to be rotated
+     * @return the new root of the rotated subtree
+     */
+    private int rightRotation(int node) {
+        int nodeLeft = left(node);
+
+        setLeft(node, right(nodeLeft));
+        setRight(nodeLeft, node);
+
+        return nodeLeft;
+    }
+
+    /**
+     * Hands out the record of a new red leaf, adding a chunk when the last one is
+     * full. The chunks already in use are kept as they are.
+     *
+     * @param element to be stored
+     * @return the index of the new node
+     */
+    private int allocate(int element) {
+        if (used == Integer.MAX_VALUE)
+            throw new IllegalStateException("Error! The off-heap red-black tree is full.");
+
+        int chunk = used >>> CHUNK_BITS;
+        if (chunk == chunks.length)
+            chunks = Arrays.copyOf(chunks, 2 * chunks.length);
+        if (chunks[chunk] == null)
+            chunks[chunk] = newChunk();
+
+        int node = used++;
+        ByteBuffer buffer = chunks[chunk];
+        int offset = offset(node);
+        buffer.putInt(offset, element);
+        buffer.putInt(offset + 4, (NIL << 1) | 1);
+        buffer.putInt(offset + 8, NIL);
+
+        return node;
+    }
+
+    private static ByteBuffer newChunk() {
+        return ByteBuffer.allocateDirect(CHUNK_NODES * NODE_BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    private void checkOpen() {
+        if (chunks == null)
+            throw new IllegalStateException("Error! The off-heap red-black tree is closed.");
+    }
+
+    private static int offset(int node) {
+        return (node & (CHUNK_NODES - 1)) * NODE_BYTES;
+    }
+
+    private ByteBuffer chunk(int node) {
+        return chunks[node >>> CHUNK_BITS];
+    }
+
+    private int element(int node) {
+        return chunk(node).getInt(offset(node));
+    }
+
+    private int left(int node) {
+        return chunk(node).getInt(offset(node) + 4) >>> 1;
+    }
+
+    private int right(int node) {
+        return chunk(node).getInt(offset(node) + 8);
+    }
+
+    private boolean isRed(int node) {
+        return node != NIL && (chunk(node).getInt(offset(node) + 4) & 1) != 0;
+    }
+
+    private void setLeft(int node, int left) {
+        ByteBuffer buffer = chunk(node);
+        int offset = offset(node) + 4;
+
+        buffer.putInt(offset, (left << 1) | (buffer.getInt(offset) & 1));
+    }
+
+    private void setRight(int node, int right) {
+        chunk(node).putInt(offset(node) + 8, right);
+    }
+
+    private void setRed(int node, boolean red) {
+        ByteBuffer buffer = chunk(node);
+        int offset = offset(node) + 4;
+
+        buffer.putInt(offset, (buffer.getInt(offset) & ~1) | (red ? 1 : 0));
+    }
+
+    /**
+     * In-order iterator over a range of elements that keeps its path in an array
+     * of node indices. When the tree has been modified since the last step, the
+     * path is rebuilt by one descent to the element after the last one returned.
+     */
+    private final class NodeIterator implements PrimitiveIterator.OfInt {
+
+        private final int hi;
+        private int[] stack = new int[64];
+        private int top;
+        private int expectedModifications;
+        private long last;
+
+        NodeIterator(int lo, int hi) {
+            this.hi = hi;
+            this.last = (long) lo - 1;
+            seek();
+        }
+
+        @Override
+        public boolean hasNext() {
+            checkOpen();
+            if (expectedModifications != modifications)
+                seek();
+
+            return top > 0 && element(stack[top - 1]) <= hi;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext())
+                throw new NoSuchElementException("Error! There are no more elements in the tree.");
+
+            int node = stack[--top];
+            for (int child = right(node); child != NIL; child = left(child))
+                push(child);
+
+            last = element(node);
+            return (int) last;
+        }
+
+        /**
+         * Rebuilds the path to the smallest element greater than {@code last}.
+         */
+        private void seek() {
+            top = 0;
+            expectedModifications = modifications;
+
+            for (int node = root; node != NIL;) {
+                if (element(node) <= last)
+                    node = right(node);
+                else {
+                    push(node);
+                    node = left(node);
+                }
+            }
+        }
+
+        private void push(int node) {
+            if (top == stack.length)
+                stack = Arrays.copyOf(stack, 2 * top);
+
+            stack[top++] = node;
+        }
+
+    }
+
+}
@@ -0,0 +1,342 @@
+package trees.redBlackTree;
+
+/**
+ * The RedBlackIntObjectMap class represents an ordered map from {@code int}
+ * keys to object values, kept in a Red-Black tree whose nodes hold both. Keys
+ * stay primitive in every lookup, update and iteration. Insertions descend the
+ * tree once, top-down, flipping colors and rotating on the way like
+ * {@code RedBlackTree}, so they need neither recursion nor parent links.
+ *
+ * @author raickmiranda
+ * @summary Represents a Red-Black map with primitive keys.
+ * @version 1.0
+ * @param <V> type of the values
+ */
+
+import java.util.function.IntFunction;
+
+import trees.TreeIterator;
+
+public class RedBlackIntObjectMap<V> {
+
+    private NodeRBIntObject<V> root;
+    private int size;
+
+    // whether the last call to findOrInsert added a node
+    private boolean inserted;
+
+    /**
+     * Constructs an empty map.
+     */
+    RedBlackIntObjectMap() {
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * Returns the number of entries in the {@code RedBlackIntObjectMap}.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the {@code RedBlackIntObjectMap} has an entry for the given
+     * key.
+     *
+     * @param key to be searched
+     * @return true if the key is present, false otherwise
+     */
+    public boolean containsKey(int key) {
+        return find(key) != null;
+    }
+
+    /**
+     * Returns the value of the given key.
+     *
+     * @param key to be searched
+     * @return the value of the key, or null if it is not present
+     */
+    public V get(int key) {
+        return getOrDefault(key, null);
+    }
+
+    /**
+     * Returns the value of the given key, or the given default if it is not
+     * present.
+     *
+     * @param key          to be searched
+     * @param defaultValue returned for a missing key
+     * @return the value of the key, or {@code defaultValue}
+     */
+    public V getOrDefault(int key, V defaultValue) {
+        NodeRBIntObject<V> node = find(key);
+
+        return (node == null) ? defaultValue : node.value;
+    }
+
+    /**
+     * Associates the given value with the given key, replacing the previous value
+     * if the key is already present.
+     *
+     * @param key   of the entry
+     * @param value of the entry
+     * @return the previous value of the key, or null if it was not present
+     */
+    public V put(int key, V value) {
+        NodeRBIntObject<V> node = findOrInsert(key, value);
+        V previous = inserted ? null : node.value;
+
+        node.value = value;
+        return previous;
+    }
+
+    /**
+     * Returns the value of the given key, first computing it and adding the entry
+     * if the key is not present. Nothing is added if the computed value is null.
+     *
+     * @param key     of the entry
+     * @param mapping function computing the value of a missing key
+     * @return the current value of the key, or null if none was computed
+     */
+    public V computeIfAbsent(int key, IntFunction<? extends V> mapping) {
+        NodeRBIntObject<V> node = find(key);
+
+        if (node != null && node.value != null)
+            return node.value;
+
+        V value = mapping.apply(key);
+        if (value == null)
+            return null;
+
+        if (node == null)
+            findOrInsert(key, value);
+        else
+            node.value = value;
+
+        return value;
+    }
+
+    /**
+     * Returns an iterator over the keys of the {@code RedBlackIntObjectMap} in
+     * ascending order, which also gives the value of the last key returned.
+     *
+     * @return the entry iterator
+     */
+    public EntryIterator<V> iterator() {
+        return new EntryIterator<>(root, TreeIterator.Order.IN_ORDER);
+    }
+
+    /**
+     * Returns an iterator over the keys {@code k} of the
+     * {@code RedBlackIntObjectMap} with {@code lo <= k <= hi} in ascending order,
+     * which also gives the value of the last key returned.
+     *
+     * @param lo smallest key of the range
+     * @param hi largest key of the range
+     * @return the entry iterator
+     */
+    public EntryIterator<V> range(int lo, int hi) {
+        return new EntryIterator<>(root, lo, hi);
+    }
+
+    /**
+     * Finds the node holding the given key.
+     *
+     * @param key to be searched
+     * @return the node, or null if the key is not present
+     */
+    private NodeRBIntObject<V> find(int key) {
+        NodeRBIntObject<V> currentNode = root;
+
+        while (currentNode != null && key != currentNode.key)
+            currentNode = (key < currentNode.key) ? currentNode.left : currentNode.right;
+
+        return currentNode;
+    }
+
+    /**
+     * Finds the node holding the given key, inserting it with the given value if
+     * it is not present. On the way down every node with two red children is
+     * turned red and its children black, and a red node under a red parent is
+     * fixed by a rotation at the grandparent, so the new red leaf can always be
+     * fixed the same way.
+     *
+     * @param key   to be searched
+     * @param value of a new entry
+     * @return the node holding the key
+     */
+    private NodeRBIntObject<V> findOrInsert(int key, V value) {
+        NodeRBIntObject<V> greatGrandParent = null, grandParent = null, parent = null, currentNode = root;
+
+        inserted = false;
+        while (currentNode != null) {
+            if (key == currentNode.key)
+                return currentNode;
+
+            if (NodeRBIntObject.isRed(currentNode.left) && NodeRBIntObject.isRed(currentNode.right)) { // frag
+                currentNode.color = true;
+                currentNode.left.color = currentNode.right.color = false;
+
+                if (currentNode == root) // root can't be colored
+                    currentNode.color = false;
+                else if (parent.color == true) {
+                    // the rotated subtree has a black root, so the descent
+                    // restarts from it with its parent as the only ancestor
+                    currentNode = rebalance(greatGrandParent, grandParent, parent, currentNode);
+                    parent = greatGrandParent;
+                    grandParent = greatGrandParent = null;
+                }
+            }
+
+            greatGrandParent = grandParent;
+            grandParent = parent;
+            parent = currentNode;
+            currentNode = (key < currentNode.key) ? currentNode.left : currentNode.right;
+        }
+
+        NodeRBIntObject<V> node = new NodeRBIntObject<>(key, value);
+        inserted = true;
+        size++;
+
+        if (parent == null)
+            root = node;
+        else {
+            if (key < parent.key)
+                parent.left = node;
+            else
+                parent.right = node;
+
+            if (parent.color == true)
+                rebalance(greatGrandParent, grandParent, parent, node);
+        }
+
+        root.color = false;
+        return node;
+    }
+
+    /**
+     * Fixes a red node under a red parent by a single or double rotation at the
+     * grandparent, linking the rotated subtree back under the great-grandparent.
+     *
+     * @param greatGrandParent node of the {@code currentNode}, null for the root
+     * @param grandParent      node of the {@code currentNode}
+     * @param parent           node of the {@code currentNode}
+     * @param currentNode      red node under a red parent
+     * @return the black root of the rotated subtree
+     */
+    private NodeRBIntObject<V> rebalance(NodeRBIntObject<V> greatGrandParent, NodeRBIntObject<V> grandParent,
+            NodeRBIntObject<V> parent, NodeRBIntObject<V> currentNode) {
+        NodeRBIntObject<V> subtreeRoot;
+
+        if (parent == grandParent.right) {
+            if (currentNode == parent.left)
+                grandParent.right = rightRotation(parent);
+            subtreeRoot = leftRotation(grandParent);
+        } else {
+            if (currentNode == parent.right)
+                grandParent.left = leftRotation(parent);
+            subtreeRoot = rightRotation(grandParent);
+        }
+
+        if (greatGrandParent == null)
+            root = subtreeRoot;
+        else if (greatGrandParent.left == grandParent)
+            greatGrandParent.left = subtreeRoot;
+        else
+            greatGrandParent.right = subtreeRoot;
+
+        subtreeRoot.color = false;
+        subtreeRoot.left.color = subtreeRoot.right.color = true;
+
+        return subtreeRoot;
+    }
+
+    /**
+     * Performs a left rotation on the specified node.
+     *
+     * @param node to be rotated
+     * @return the new root of the rotated subtree
+     */
+    private static <V> NodeRBIntObject<V> leftRotation(NodeRBIntObject<V> node) {
+        NodeRBIntObject<V> nodeRight = node.right;
+
+        node.right = nodeRight.left;
+        nodeRight.left = node;
+
+        return nodeRight;
+    }
+
+    /**
+     * Performs a right rotation on the specified node.
+     *
+     * @param node to be rotated
+     * @return the new root of the rotated subtree
+     */
+    private static <V> NodeRBIntObject<V> rightRotation(NodeRBIntObject<V> node) {
+        NodeRBIntObject<V> nodeLeft = node.left;
+
+        node.left = nodeLeft.right;
+        nodeLeft.right = node;
+
+        return nodeLeft;
+    }
+
+    /**
+     * Iterator over the entries of a {@code RedBlackIntObjectMap}.
+     * {@code nextInt} returns the next key and {@code value} the value that goes
+     * with it.
+     *
+     * @param <V> type of the values
+     */
+    public static class EntryIterator<V> extends TreeIterator<NodeRBIntObject<V>> {
+
+        private NodeRBIntObject<V> current;
+
+        EntryIterator(NodeRBIntObject<V> root, Order order) {
+            super(root, order);
+        }
+
+        EntryIterator(NodeRBIntObject<V> root, int lo, int hi) {
+            super(root, lo, hi);
+        }
+
+        @Override
+        public int nextInt() {
+            current = nextNode();
+            return current.key;
+        }
+
+        /**
+         * Returns the value of the last key returned by {@code nextInt}.
+         *
+         * @return the value of the current entry
+         * @throws IllegalStateException if {@code nextInt} was not called yet
+         */
+        public V value() {
+            if (current == null)
+                throw new IllegalStateException("Error! The iteration has not started.");
+
+            return current.value;
+        }
+
+        @Override
+        protected NodeRBIntObject<V> left(NodeRBIntObject<V> node) {
+            return node.left;
+        }
+
+        @Override
+        protected NodeRBIntObject<V> right(NodeRBIntObject<V> node) {
+            return node.right;
+        }
+
+        @Override
+        protected int element(NodeRBIntObject<V> node) {
+            return node.key;
+        }
+
+    }
+
+}
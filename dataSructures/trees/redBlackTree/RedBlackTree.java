@@ -11,9 +11,16 @@ package trees.redBlackTree;
  * @version 1.0
  */
 
+import java.util.PrimitiveIterator;
+
+import trees.EmptyTreeException;
+import trees.KeyResult;
+import trees.TreeIterator;
+
 public class RedBlackTree {
 
     private NodeRB root;
+    private final NodeRB head = new NodeRB(); // false root above the real one during removals
 
     /**
      * Constructs an empty {@code RedBlackTree}.
@@ -55,73 +62,280 @@ public class RedBlackTree {
     }
 
     /**
-     * Inserts a new element into the {@code RedBlackTree}
+     * Returns the number of elements in the {@code RedBlackTree}.
      * 
-     * @param in element to be inserted
-     * @throws Exception if the specified element is already present in the tree
+     * @return the number of elements
      */
-    public void insert(int in) throws Exception {
-        if (root == null)
-            root = new NodeRB(in);
-        else if (root.left == null && root.right == null) {
-            if (in < root.element)
-                root.left = new NodeRB(in);
-            else
-                root.right = new NodeRB(in);
-        } else if (root.left == null) {
-            if (in < root.element)
-                root.left = new NodeRB(in);
-            else if (in < root.right.element) {
-                root.left = new NodeRB(root.element);
-                root.element = in;
-            } else {
-                root.left = new NodeRB(root.element);
-                root.element = root.right.element;
-                root.right.element = in;
+    public int size() {
+        return NodeRB.getSize(root);
+    }
+
+    /**
+     * Returns how many elements of the {@code RedBlackTree} are smaller than the given
+     * key, which is the position the key has (or would have) in sorted order.
+     * 
+     * @param key being ranked
+     * @return the number of elements smaller than {@code key}
+     */
+    public int rank(int key) {
+        int rank = 0;
+        NodeRB currentNode = root;
+
+        while (currentNode != null) {
+            if (key <= currentNode.element)
+                currentNode = currentNode.left;
+            else {
+                rank += 1 + NodeRB.getSize(currentNode.left);
+                currentNode = currentNode.right;
             }
-            root.left.color = root.right.color = false;
-        } else if (root.right == null) {
-            if (in > root.element)
-                root.right = new NodeRB(in);
-            else if (in > root.left.element) {
-                root.right = new NodeRB(root.element);
-                root.element = in;
-            } else {
-                root.right = new NodeRB(root.element);
-                root.element = root.left.element;
-                root.left.element = in;
+        }
+
+        return rank;
+    }
+
+    /**
+     * Returns the element at the given position of the sorted order of the
+     * {@code RedBlackTree}, so that {@code select(rank(x)) == x} for every element.
+     * 
+     * @param index position of the element, starting at 0
+     * @return the {@code index}-th smallest element
+     * @throws IndexOutOfBoundsException if {@code index} is not in [0, size)
+     */
+    public int select(int index) {
+        if (index < 0 || index >= size())
+            throw new IndexOutOfBoundsException("Error! Invalid position (" + index + ") in the red-black tree.");
+
+        NodeRB currentNode = root;
+        while (true) {
+            int leftSize = NodeRB.getSize(currentNode.left);
+
+            if (index < leftSize)
+                currentNode = currentNode.left;
+            else if (index > leftSize) {
+                index -= leftSize + 1;
+                currentNode = currentNode.right;
+            } else
+                return currentNode.element;
+        }
+    }
+
+    /**
+     * Counts the elements of the {@code RedBlackTree} within the given closed range.
+     * 
+     * @param lo smallest element of the range
+     * @param hi largest element of the range
+     * @return the number of elements {@code x} with {@code lo <= x <= hi}
+     */
+    public int countInRange(int lo, int hi) {
+        if (lo > hi)
+            return 0;
+
+        int atMostHi = 0;
+        NodeRB currentNode = root;
+
+        while (currentNode != null) {
+            if (hi < currentNode.element)
+                currentNode = currentNode.left;
+            else {
+                atMostHi += 1 + NodeRB.getSize(currentNode.left);
+                currentNode = currentNode.right;
             }
-            root.left.color = root.right.color = false;
-        } else
-            insert(in, null, null, null, root);
+        }
 
-        root.color = false;
+        return atMostHi - rank(lo);
     }
 
     /**
-     * Inserts a new element into the {@code RedBlackTree} and performs the
-     * necessary balancing operations.
+     * Returns the largest element of the {@code RedBlackTree} that is less than or
+     * equal to the given key.
      * 
-     * @param in               element to be inserted
-     * @param greatGrandParent node of the {@code currentNode}
-     * @param grandParent      node of the {@code currentNode}
-     * @param parent           node of the {@code currentNode}
-     * @param currentNode      node being examined
+     * @param key being looked up
+     * @return the element, or {@code KeyResult.NOT_FOUND} if there is none
+     */
+    public long floor(int key) {
+        long answer = KeyResult.NOT_FOUND;
+        NodeRB currentNode = root;
+
+        while (currentNode != null) {
+            if (key == currentNode.element)
+                return key;
+            else if (key < currentNode.element)
+                currentNode = currentNode.left;
+            else {
+                answer = currentNode.element;
+                currentNode = currentNode.right;
+            }
+        }
+
+        return answer;
+    }
+
+    /**
+     * Returns the smallest element of the {@code RedBlackTree} that is greater than
+     * or equal to the given key.
+     * 
+     * @param key being looked up
+     * @return the element, or {@code KeyResult.NOT_FOUND} if there is none
+     */
+    public long ceiling(int key) {
+        long answer = KeyResult.NOT_FOUND;
+        NodeRB currentNode = root;
+
+        while (currentNode != null) {
+            if (key == currentNode.element)
+                return key;
+            else if (key > currentNode.element)
+                currentNode = currentNode.right;
+            else {
+                answer = currentNode.element;
+                currentNode = currentNode.left;
+            }
+        }
+
+        return answer;
+    }
+
+    /**
+     * Returns the largest element of the {@code RedBlackTree} that is strictly less
+     * than the given key.
+     * 
+     * @param key being looked up
+     * @return the element, or {@code KeyResult.NOT_FOUND} if there is none
+     */
+    public long lower(int key) {
+        long answer = KeyResult.NOT_FOUND;
+        NodeRB currentNode = root;
+
+        while (currentNode != null) {
+            if (key <= currentNode.element)
+                currentNode = currentNode.left;
+            else {
+                answer = currentNode.element;
+                currentNode = currentNode.right;
+            }
+        }
+
+        return answer;
+    }
+
+    /**
+     * Returns the smallest element of the {@code RedBlackTree} that is strictly
+     * greater than the given key.
+     * 
+     * @param key being looked up
+     * @return the element, or {@code KeyResult.NOT_FOUND} if there is none
+     */
+    public long higher(int key) {
+        long answer = KeyResult.NOT_FOUND;
+        NodeRB currentNode = root;
+
+        while (currentNode != null) {
+            if (key >= currentNode.element)
+                currentNode = currentNode.right;
+            else {
+                answer = currentNode.element;
+                currentNode = currentNode.left;
+            }
+        }
+
+        return answer;
+    }
+
+    /**
+     * Returns the smallest element of the {@code RedBlackTree}.
+     * 
+     * @return the element, or {@code KeyResult.NOT_FOUND} if the tree is empty
+     */
+    public long first() {
+        NodeRB currentNode = root;
+
+        if (currentNode == null)
+            return KeyResult.NOT_FOUND;
+        while (currentNode.left != null)
+            currentNode = currentNode.left;
+
+        return currentNode.element;
+    }
+
+    /**
+     * Returns the largest element of the {@code RedBlackTree}.
+     * 
+     * @return the element, or {@code KeyResult.NOT_FOUND} if the tree is empty
+     */
+    public long last() {
+        NodeRB currentNode = root;
+
+        if (currentNode == null)
+            return KeyResult.NOT_FOUND;
+        while (currentNode.right != null)
+            currentNode = currentNode.right;
+
+        return currentNode.element;
+    }
+
+    /**
+     * Removes and returns the smallest element of the {@code RedBlackTree}.
+     * 
+     * @return the element, or {@code KeyResult.NOT_FOUND} if the tree is empty
+     */
+    public long pollFirst() {
+        long first = first();
+
+        if (KeyResult.isFound(first))
+            removeIfPresent((int) first);
+
+        return first;
+    }
+
+    /**
+     * Removes and returns the largest element of the {@code RedBlackTree}.
+     * 
+     * @return the element, or {@code KeyResult.NOT_FOUND} if the tree is empty
+     */
+    public long pollLast() {
+        long last = last();
+
+        if (KeyResult.isFound(last))
+            removeIfPresent((int) last);
+
+        return last;
+    }
+
+    /**
+     * Inserts a new element into the {@code RedBlackTree}
+     * 
+     * @param in element to be inserted
      * @throws Exception if the specified element is already present in the tree
      */
-    private void insert(int in, NodeRB greatGrandParent, NodeRB grandParent, NodeRB parent, NodeRB currentNode)
-            throws Exception {
-        if (currentNode == null) {
-            if (in < parent.element)
-                currentNode = parent.left = new NodeRB(in, true);
-            else
-                currentNode = parent.right = new NodeRB(in, true);
+    public void insert(int in) throws Exception {
+        if (!insertIfAbsent(in))
+            throw new Exception("Error! The specified element is already present in the tree.");
+    }
 
-            if (parent.color == true)
-                rebalance(greatGrandParent, grandParent, parent, currentNode);
-        } else {
-            if (currentNode.left != null && currentNode.right != null && currentNode.left.color == true
-                    && currentNode.right.color == true) { // frag
+    /**
+     * Inserts a new element into the {@code RedBlackTree} unless it is already
+     * present. Unlike {@code insert}, a duplicate is reported without creating an
+     * exception.
+     * <p>
+     * The element is inserted in a single descent from the root that keeps its
+     * last ancestors in local variables. Every node with two red children met on
+     * the way is turned red and its children black, and a red node under a red
+     * parent is fixed by {@code rebalance}, so the new red leaf can always be
+     * fixed the same way.
+     * 
+     * @param in element to be inserted
+     * @return true if the element was inserted, false if it was already present
+     */
+    public boolean insertIfAbsent(int in) {
+        if (root == null) {
+            root = new NodeRB(in);
+            return true;
+        }
+
+        NodeRB greatGrandParent = null, grandParent = null, parent = null, currentNode = root;
+
+        while (currentNode != null) {
+            if (NodeRB.isRed(currentNode.left) && NodeRB.isRed(currentNode.right)) { // frag
                 currentNode.color = true;
                 currentNode.left.color = currentNode.right.color = false;
 
@@ -131,13 +345,126 @@ public class RedBlackTree {
                     rebalance(greatGrandParent, grandParent, parent, currentNode);
             }
 
-            if (in < currentNode.element)
-                insert(in, grandParent, parent, currentNode, currentNode.left);
-            else if (in > currentNode.element)
-                insert(in, grandParent, parent, currentNode, currentNode.right);
-            else
-                throw new Exception("Error! The specified element is already present in the tree.");
+            if (in == currentNode.element)
+                return false;
+
+            greatGrandParent = grandParent;
+            grandParent = parent;
+            parent = currentNode;
+            currentNode = (in < currentNode.element) ? currentNode.left : currentNode.right;
+        }
+
+        if (in < parent.element)
+            currentNode = parent.left = new NodeRB(in, true);
+        else
+            currentNode = parent.right = new NodeRB(in, true);
+
+        // the new leaf adds one to every subtree on its path from the root
+        NodeRB ancestor = root;
+        while (ancestor != currentNode) {
+            ancestor.size++;
+            ancestor = (in < ancestor.element) ? ancestor.left : ancestor.right;
+        }
+
+        if (parent.color == true)
+            rebalance(greatGrandParent, grandParent, parent, currentNode);
+
+        root.color = false;
+        return true;
+    }
+
+    /**
+     * Removes the specified element from the {@code RedBlackTree}.
+     * 
+     * @param out element to be removed
+     * @throws EmptyTreeException if the element is not present in the tree
+     */
+    public void remove(int out) throws EmptyTreeException {
+        if (!removeIfPresent(out))
+            throw new EmptyTreeException("Error! The red-black tree is empty.");
+    }
+
+    /**
+     * Removes the specified element from the {@code RedBlackTree} if it is
+     * present, without creating an exception for a missing element.
+     * <p>
+     * The removal takes a single pass from the root. On the way down it makes
+     * sure the current node is red or has a red child, by rotating a red child
+     * up, by a color flip with its sibling, or by a rotation at the parent when
+     * the sibling has a red child. The node finally unlinked is then a red one
+     * or sits above one, so no black height changes. An element with two
+     * children is replaced by its predecessor, which is the node where the
+     * descent stops.
+     * 
+     * @param out element to be removed
+     * @return true if the element was removed, false if it was not present
+     */
+    public boolean removeIfPresent(int out) {
+        if (root == null)
+            return false;
+
+        NodeRB grandParent = null, parent = null, currentNode = head, found = null;
+        int direction = 1;
+
+        head.right = root;
+        while (currentNode.child(direction) != null) {
+            int last = direction;
+
+            grandParent = parent;
+            parent = currentNode;
+            currentNode = currentNode.child(direction);
+            direction = (currentNode.element < out) ? 1 : -1;
+
+            if (currentNode.element == out)
+                found = currentNode;
+
+            // push a red node down
+            if (!NodeRB.isRed(currentNode) && !NodeRB.isRed(currentNode.child(direction))) {
+                if (NodeRB.isRed(currentNode.child(-direction))) {
+                    parent.setChild(last, rotation(currentNode, direction));
+                    parent = parent.child(last);
+                } else {
+                    NodeRB sibling = parent.child(-last);
+
+                    if (sibling != null) {
+                        if (!NodeRB.isRed(sibling.left) && !NodeRB.isRed(sibling.right)) { // flip
+                            parent.color = false;
+                            sibling.color = currentNode.color = true;
+                        } else {
+                            int side = (grandParent.right == parent) ? 1 : -1;
+
+                            if (NodeRB.isRed(sibling.child(last)))
+                                parent.setChild(-last, rotation(sibling, -last));
+                            NodeRB subtreeRoot = rotation(parent, last);
+                            grandParent.setChild(side, subtreeRoot);
+
+                            currentNode.color = subtreeRoot.color = true;
+                            subtreeRoot.left.color = subtreeRoot.right.color = false;
+                        }
+                    }
+                }
+            }
         }
+
+        root = head.right;
+        if (found != null) {
+            // the unlinked node leaves every subtree on its path from the root
+            for (NodeRB ancestor = root; ancestor != currentNode;) {
+                ancestor.size--;
+                ancestor = (out <= ancestor.element) ? ancestor.left : ancestor.right;
+            }
+
+            found.element = currentNode.element;
+            parent.setChild((parent.right == currentNode) ? 1 : -1,
+                    (currentNode.left == null) ? currentNode.right : currentNode.left);
+            root = head.right;
+        }
+
+        head.right = null;
+        if (root != null)
+            root.color = false;
+
+        return found != null;
     }
 
     /**
@@ -158,7 +485,7 @@ public class RedBlackTree {
                     grandParent = rightLeftRotation(grandParent);
             } else {
                 if (currentNode.element < parent.element)
-                    greatGrandParent = rightRotation(grandParent);
+                    grandParent = rightRotation(grandParent);
                 else
                     grandParent = leftRightRotation(grandParent);
             }
@@ -188,6 +515,9 @@ public class RedBlackTree {
         nodeRight.left = node;
         node.right = nodeRightLeft;
 
+        node.setSize();
+        nodeRight.setSize();
+
         return nodeRight;
     }
 
@@ -204,6 +534,9 @@ public class RedBlackTree {
         nodeLeft.right = node;
         node.left = nodeLeftRight;
 
+        node.setSize();
+        nodeLeft.setSize();
+
         return nodeLeft;
     }
 
@@ -215,9 +548,9 @@ public class RedBlackTree {
      * @return the new root of the rotated subtree
      */
     private NodeRB leftRightRotation(NodeRB node) {
-        node.right = rightRotation(node.right);
+        node.left = leftRotation(node.left);
 
-        return leftRotation(node);
+        return rightRotation(node);
     }
 
     /**
@@ -228,9 +561,111 @@ public class RedBlackTree {
      * @return the new root of the rotated subtree
      */
     private NodeRB rightLeftRotation(NodeRB node) {
-        node.left = leftRotation(node.left);
+        node.right = rightRotation(node.right);
 
-        return rightRotation(node);
+        return leftRotation(node);
+    }
+
+    /**
+     * Rotates the specified node down in the given direction, turning it red and
+     * the child that takes its place black.
+     * 
+     * @param node      to be rotated
+     * @param direction negative for a left rotation, positive for a right one
+     * @return the new root of the rotated subtree
+     */
+    private NodeRB rotation(NodeRB node, int direction) {
+        NodeRB subtreeRoot = (direction < 0) ? leftRotation(node) : rightRotation(node);
+
+        node.color = true;
+        subtreeRoot.color = false;
+
+        return subtreeRoot;
+    }
+
+    /**
+     * Checks the red-black invariants of the {@code RedBlackTree}: the elements
+     * are in order, the root is black, no red node has a red child, every path
+     * from the root to a leaf has the same number of black nodes and every
+     * subtree size is right.
+     * 
+     * @throws IllegalStateException if an invariant does not hold
+     */
+    void checkInvariants() {
+        if (NodeRB.isRed(root))
+            throw new IllegalStateException("Error! The root of the red-black tree is red.");
+
+        checkInvariants(root, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Helper method to check the invariants of a subtree whose elements must lie
+     * strictly between the given bounds.
+     * 
+     * @param currentNode root of the subtree
+     * @param lo          exclusive lower bound of the elements
+     * @param hi          exclusive upper bound of the elements
+     * @return the number of black nodes on every path down from the subtree
+     */
+    private int checkInvariants(NodeRB currentNode, long lo, long hi) {
+        if (currentNode == null)
+            return 0;
+
+        if (currentNode.element <= lo || currentNode.element >= hi)
+            throw new IllegalStateException("Error! Element " + currentNode.element + " is out of order.");
+        if (currentNode.color && (NodeRB.isRed(currentNode.left) || NodeRB.isRed(currentNode.right)))
+            throw new IllegalStateException("Error! Red node " + currentNode.element + " has a red child.");
+        if (currentNode.size != 1 + NodeRB.getSize(currentNode.left) + NodeRB.getSize(currentNode.right))
+            throw new IllegalStateException("Error! Wrong subtree size at " + currentNode.element + ".");
+
+        int leftHeight = checkInvariants(currentNode.left, lo, currentNode.element);
+        int rightHeight = checkInvariants(currentNode.right, currentNode.element, hi);
+        if (leftHeight != rightHeight)
+            throw new IllegalStateException("Error! Unequal black heights below " + currentNode.element + ".");
+
+        return leftHeight + (currentNode.color ? 0 : 1);
+    }
+
+    /**
+     * Returns a lazy iterator over the elements of the {@code RedBlackTree} in
+     * pre-order.
+     * 
+     * @return the pre-order iterator
+     */
+    public PrimitiveIterator.OfInt preOrderIterator() {
+        return new NodeIterator(root, TreeIterator.Order.PRE_ORDER);
+    }
+
+    /**
+     * Returns a lazy iterator over the elements of the {@code RedBlackTree} in
+     * ascending order.
+     * 
+     * @return the in-order iterator
+     */
+    public PrimitiveIterator.OfInt inOrderIterator() {
+        return new NodeIterator(root, TreeIterator.Order.IN_ORDER);
+    }
+
+    /**
+     * Returns a lazy iterator over the elements of the {@code RedBlackTree} in
+     * post-order.
+     * 
+     * @return the post-order iterator
+     */
+    public PrimitiveIterator.OfInt postOrderIterator() {
+        return new NodeIterator(root, TreeIterator.Order.POST_ORDER);
+    }
+
+    /**
+     * Returns a lazy iterator over the elements {@code x} of the
+     * {@code RedBlackTree} with {@code lo <= x <= hi}, in ascending order.
+     * 
+     * @param lo smallest element of the range
+     * @param hi largest element of the range
+     * @return the range iterator
+     */
+    public PrimitiveIterator.OfInt range(int lo, int hi) {
+        return new NodeIterator(root, lo, hi);
     }
 
     /**
@@ -302,4 +737,34 @@ public class RedBlackTree {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Gives {@code TreeIterator} access to the nodes of the {@code RedBlackTree}.
+     */
+    private static class NodeIterator extends TreeIterator<NodeRB> {
+
+        NodeIterator(NodeRB root, Order order) {
+            super(root, order);
+        }
+
+        NodeIterator(NodeRB root, int lo, int hi) {
+            super(root, lo, hi);
+        }
+
+        @Override
+        protected NodeRB left(NodeRB node) {
+            return node.left;
+        }
+
+        @Override
+        protected NodeRB right(NodeRB node) {
+            return node.right;
+        }
+
+        @Override
+        protected int element(NodeRB node) {
+            return node.element;
+        }
+
+    }
+
+}
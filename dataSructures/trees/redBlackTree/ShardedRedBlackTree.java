@@ -0,0 +1,432 @@
+package trees.redBlackTree;
+
+/**
+ * The ShardedRedBlackTree class represents an ordered set of {@code int}
+ * elements that many threads can update at once. The key space is split into
+ * contiguous ranges, the shards, and each shard keeps its elements in its own
+ * {@code RedBlackTree} guarded by its own {@code StampedLock}, so threads that
+ * work on different ranges never wait for each other.
+ * <p>
+ * A shard whose write lock is often found taken is hot, and it is split at its
+ * median element into two shards once it holds enough elements. The list of
+ * shards is immutable and is replaced as a whole on every split; a thread that
+ * reaches a shard retired by a split meanwhile simply looks it up again.
+ * Ordered iteration, range queries and counts walk the shards in order, locking
+ * one at a time, so they are consistent within each shard but not across them.
+ *
+ * @author raickmiranda
+ * @summary Represents a concurrent ordered set sharded by key range.
+ * @version 1.0
+ */
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.locks.StampedLock;
+
+import trees.EmptyTreeException;
+
+public class ShardedRedBlackTree {
+
+    // contended writes after which a shard is split
+    private static final int SPLIT_CONTENTION = 64;
+    // smallest shard worth splitting
+    private static final int MIN_SPLIT_SIZE = 128;
+    private static final int MAX_SHARDS = 1 << 12;
+
+    private volatile Layout layout;
+    private final Object splitLock = new Object();
+
+    /**
+     * Constructs an empty set with 16 shards of equal key range.
+     */
+    ShardedRedBlackTree() {
+        this(16);
+    }
+
+    /**
+     * Constructs an empty set whose key space is split into the given number of
+     * shards of equal key range.
+     *
+     * @param shards initial number of shards
+     * @throws IllegalArgumentException if {@code shards} is not in [1, 4096]
+     */
+    ShardedRedBlackTree(int shards) {
+        if (shards < 1 || shards > MAX_SHARDS)
+            throw new IllegalArgumentException("Error! Invalid number of shards (" + shards + ").");
+
+        long width = (1L << 32) / shards;
+        Shard[] initial = new Shard[shards];
+        for (int i = 0; i < shards; i++) {
+            long lo = Integer.MIN_VALUE + i * width;
+            long hi = (i == shards - 1) ? Integer.MAX_VALUE : lo + width - 1;
+            initial[i] = new Shard((int) lo, (int) hi);
+        }
+
+        layout = new Layout(initial);
+    }
+
+    /**
+     * Searches for the specified key in the {@code ShardedRedBlackTree}.
+     *
+     * @param key to be searched
+     * @return true if the key is found in the set, false otherwise
+     */
+    public boolean search(int key) {
+        while (true) {
+            Shard shard = layout.shardOf(key);
+            long stamp = shard.lock.readLock();
+
+            try {
+                if (!shard.retired)
+                    return shard.tree.search(key);
+            } finally {
+                shard.lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of elements in the {@code ShardedRedBlackTree}. The size
+     * of each shard is read optimistically, without taking its lock.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        Layout current = layout;
+        int size = 0;
+
+        for (Shard shard : current.shards) {
+            long stamp = shard.lock.tryOptimisticRead();
+            int shardSize = shard.tree.size();
+            boolean retired = shard.retired;
+
+            if (!shard.lock.validate(stamp)) {
+                stamp = shard.lock.readLock();
+                try {
+                    shardSize = shard.tree.size();
+                    retired = shard.retired;
+                } finally {
+                    shard.lock.unlockRead(stamp);
+                }
+            }
+
+            if (retired) // split meanwhile, count the new shards instead
+                return size();
+            size += shardSize;
+        }
+
+        return size;
+    }
+
+    /**
+     * Returns the current number of shards.
+     *
+     * @return the number of shards
+     */
+    public int shardCount() {
+        return layout.shards.length;
+    }
+
+    /**
+     * Counts the elements of the {@code ShardedRedBlackTree} within the given
+     * closed range.
+     *
+     * @param lo smallest element of the range
+     * @param hi largest element of the range
+     * @return the number of elements {@code x} with {@code lo <= x <= hi}
+     */
+    public int countInRange(int lo, int hi) {
+        int count = 0;
+        long from = lo;
+
+        while (from <= hi) {
+            Shard shard = layout.shardOf((int) from);
+            long stamp = shard.lock.readLock();
+
+            try {
+                if (!shard.retired) {
+                    count += shard.tree.countInRange((int) from, Math.min(hi, shard.hi));
+                    from = shard.hi + 1L;
+                }
+            } finally {
+                shard.lock.unlockRead(stamp);
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Inserts a new element into the {@code ShardedRedBlackTree}.
+     *
+     * @param in element to be inserted
+     * @throws Exception if the specified element is already present in the set
+     */
+    public void insert(int in) throws Exception {
+        if (!insertIfAbsent(in))
+            throw new Exception("Error! The specified element is already present in the tree.");
+    }
+
+    /**
+     * Inserts a new element into the {@code ShardedRedBlackTree} unless it is
+     * already present, without creating an exception for a duplicate.
+     *
+     * @param in element to be inserted
+     * @return true if the element was inserted, false if it was already present
+     */
+    public boolean insertIfAbsent(int in) {
+        return update(in, true);
+    }
+
+    /**
+     * Removes the specified element from the {@code ShardedRedBlackTree}.
+     *
+     * @param out element to be removed
+     * @throws EmptyTreeException if the element is not present in the set
+     */
+    public void remove(int out) throws EmptyTreeException {
+        if (!removeIfPresent(out))
+            throw new EmptyTreeException("Error! The red-black tree is empty.");
+    }
+
+    /**
+     * Removes the specified element from the {@code ShardedRedBlackTree} if it
+     * is present, without creating an exception for a missing element.
+     *
+     * @param out element to be removed
+     * @return true if the element was removed, false if it was not present
+     */
+    public boolean removeIfPresent(int out) {
+        return update(out, false);
+    }
+
+    /**
+     * Returns a lazy iterator over the elements of the
+     * {@code ShardedRedBlackTree} in ascending order.
+     *
+     * @return the in-order iterator
+     */
+    public PrimitiveIterator.OfInt inOrderIterator() {
+        return new RangeIterator(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns a lazy iterator over the elements {@code x} of the
+     * {@code ShardedRedBlackTree} with {@code lo <= x <= hi}, in ascending order.
+     * The elements of a shard are copied under its read lock when the iteration
+     * reaches it.
+     *
+     * @param lo smallest element of the range
+     * @param hi largest element of the range
+     * @return the range iterator
+     */
+    public PrimitiveIterator.OfInt range(int lo, int hi) {
+        return new RangeIterator(lo, hi);
+    }
+
+    /**
+     * Inserts or removes an element in the shard that owns it. A write that has
+     * to wait for the lock counts as contended, and the shard is split once it
+     * has seen enough of them.
+     *
+     * @param key    element to be inserted or removed
+     * @param insert true to insert the element, false to remove it
+     * @return true if the set changed, false otherwise
+     */
+    private boolean update(int key, boolean insert) {
+        while (true) {
+            Shard shard = layout.shardOf(key);
+            boolean changed, hot;
+            long stamp = shard.lock.tryWriteLock();
+
+            if (stamp == 0) {
+                stamp = shard.lock.writeLock();
+                shard.contended++;
+            }
+
+            try {
+                if (shard.retired)
+                    continue;
+
+                changed = insert ? shard.tree.insertIfAbsent(key) : shard.tree.removeIfPresent(key);
+                hot = shard.contended >= SPLIT_CONTENTION;
+            } finally {
+                shard.lock.unlockWrite(stamp);
+            }
+
+            if (hot)
+                split(shard);
+
+            return changed;
+        }
+    }
+
+    /**
+     * Splits a hot shard at its median element and publishes the new list of
+     * shards. The shard keeps its write lock while its elements are moved, and it
+     * is retired before the lock is released.
+     *
+     * @param shard to be split
+     */
+    private void split(Shard shard) {
+        synchronized (splitLock) {
+            Layout current = layout;
+            long stamp = shard.lock.writeLock();
+
+            try {
+                if (shard.retired || shard.contended < SPLIT_CONTENTION || current.shards.length >= MAX_SHARDS)
+                    return;
+
+                int size = shard.tree.size();
+                if (size < MIN_SPLIT_SIZE) {
+                    shard.contended = 0; // hot but too small, look again later
+                    return;
+                }
+
+                int median = shard.tree.select(size / 2);
+                Shard lower = new Shard(shard.lo, median - 1), upper = new Shard(median, shard.hi);
+
+                for (PrimitiveIterator.OfInt elements = shard.tree.inOrderIterator(); elements.hasNext();) {
+                    int element = elements.nextInt();
+                    (element < median ? lower : upper).tree.insertIfAbsent(element);
+                }
+
+                Shard[] shards = new Shard[current.shards.length + 1];
+                int index = current.indexOf(shard.lo);
+                System.arraycopy(current.shards, 0, shards, 0, index);
+                shards[index] = lower;
+                shards[index + 1] = upper;
+                System.arraycopy(current.shards, index + 1, shards, index + 2, current.shards.length - index - 1);
+
+                shard.retired = true;
+                layout = new Layout(shards);
+            } finally {
+                shard.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * A range of keys {@code [lo, hi]} and the tree with its elements. The fields
+     * that change are only accessed under the lock of the shard.
+     */
+    private static final class Shard {
+
+        final int lo, hi;
+        final RedBlackTree tree = new RedBlackTree();
+        final StampedLock lock = new StampedLock();
+        boolean retired;
+        int contended;
+
+        Shard(int lo, int hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+    }
+
+    /**
+     * The shards in ascending order of their ranges, which together cover every
+     * {@code int}. A layout is never modified once published.
+     */
+    private static final class Layout {
+
+        final Shard[] shards;
+        final int[] lows;
+
+        Layout(Shard[] shards) {
+            this.shards = shards;
+            this.lows = new int[shards.length];
+
+            for (int i = 0; i < shards.length; i++)
+                lows[i] = shards[i].lo;
+        }
+
+        /**
+         * Returns the position of the shard whose range contains the key.
+         */
+        int indexOf(int key) {
+            int lo = 0, hi = lows.length - 1;
+
+            while (lo < hi) {
+                int middle = (lo + hi + 1) >>> 1;
+
+                if (lows[middle] <= key)
+                    lo = middle;
+                else
+                    hi = middle - 1;
+            }
+
+            return lo;
+        }
+
+        Shard shardOf(int key) {
+            return shards[indexOf(key)];
+        }
+
+    }
+
+    /**
+     * Iterator over a range of elements that copies the matching elements of
+     * one shard at a time.
+     */
+    private final class RangeIterator implements PrimitiveIterator.OfInt {
+
+        private final int hi;
+        private long from;
+        private int[] buffer = new int[0];
+        private int position = 0, length = 0;
+
+        RangeIterator(int lo, int hi) {
+            this.from = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (position == length && from <= hi)
+                fill();
+
+            return position < length;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext())
+                throw new NoSuchElementException("Error! There are no more elements in the tree.");
+
+            return buffer[position++];
+        }
+
+        /**
+         * Copies the elements of the shard owning {@code from}, if it is still
+         * current, and moves {@code from} past that shard.
+         */
+        private void fill() {
+            Shard shard = layout.shardOf((int) from);
+            long stamp = shard.lock.readLock();
+
+            try {
+                if (shard.retired)
+                    return;
+
+                int upTo = Math.min(hi, shard.hi);
+                int count = shard.tree.countInRange((int) from, upTo);
+                if (buffer.length < count)
+                    buffer = new int[Math.max(count, 2 * buffer.length)];
+
+                PrimitiveIterator.OfInt elements = shard.tree.range((int) from, upTo);
+                for (int i = 0; i < count; i++)
+                    buffer[i] = elements.nextInt();
+
+                position = 0;
+                length = count;
+                from = shard.hi + 1L;
+            } finally {
+                shard.lock.unlockRead(stamp);
+            }
+        }
+
+    }
+
+}
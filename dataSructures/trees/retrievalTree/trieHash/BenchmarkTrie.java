@@ -0,0 +1,141 @@
+package trees.retrievalTree.trieHash;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Benchmarks for the {@code RetrievalTree}. The first argument selects the
+ * scenario and the second one the number of words.
+ *
+ * @author raickmiranda
+ * @summary Benchmarks of the retrieval tree operations.
+ * @version 1.0
+ */
+
+public class BenchmarkTrie {
+
+    public static void main(String[] args) throws Exception {
+        String scenario = (args.length > 0) ? args[0] : "memory";
+        int size = (args.length > 1) ? Integer.parseInt(args[1]) : 200_000;
+
+        switch (scenario) {
+            case "memory":
+                memory(size);
+                break;
+            case "bytes":
+                bytes(size);
+                break;
+            default:
+                System.out.println("Unknown scenario: " + scenario);
+        }
+    }
+
+    /**
+     * Measures the heap taken per word by a {@code RetrievalTree} holding a
+     * dictionary of random lowercase words, and the time to search all of them.
+     *
+     * @param size number of words generated
+     */
+    private static void memory(int size) throws Exception {
+        String[] words = dictionary(size, new Random(42));
+
+        long before = usedMemory();
+        RetrievalTree tree = new RetrievalTree();
+        for (String word : words)
+            tree.insert(word);
+        long bytes = usedMemory() - before;
+
+        int found = 0;
+        long searched = -System.nanoTime();
+        for (String word : words)
+            if (tree.search(word))
+                found++;
+        searched += System.nanoTime();
+
+        System.out.printf("%d words: %.1f bytes/word, search %.1f ns/word%s%n", words.length,
+                (double) bytes / words.length, (double) searched / words.length,
+                (found == words.length) ? "" : " MISMATCH");
+    }
+
+    /**
+     * Compares looking up words stored back to back in a buffer, as read from a
+     * file or the network, directly by their bytes and after decoding each one
+     * into a {@code String}.
+     *
+     * @param size number of words generated
+     */
+    private static void bytes(int size) throws Exception {
+        String[] words = dictionary(size, new Random(42));
+        RetrievalTree tree = new RetrievalTree();
+        for (String word : words)
+            tree.insert(word);
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(16 * words.length);
+        int[] ends = new int[words.length];
+        for (int i = 0; i < words.length; i++) {
+            buffer.put(words[i].getBytes(StandardCharsets.UTF_8));
+            ends[i] = buffer.position();
+        }
+
+        int found = 0;
+        for (int round = 1; round <= 5; round++) {
+            long raw = -System.nanoTime();
+            for (int i = 0; i < ends.length; i++) {
+                buffer.limit(ends[i]).position((i == 0) ? 0 : ends[i - 1]);
+                if (tree.search(buffer))
+                    found++;
+            }
+            raw += System.nanoTime();
+
+            long decoded = -System.nanoTime();
+            for (int i = 0; i < ends.length; i++) {
+                buffer.limit(ends[i]).position((i == 0) ? 0 : ends[i - 1]);
+                if (tree.search(StandardCharsets.UTF_8.decode(buffer).toString()))
+                    found--;
+            }
+            decoded += System.nanoTime();
+
+            System.out.printf("round %d: search by bytes %.1f ns/word, decoded to String %.1f ns/word%s%n", round,
+                    (double) raw / words.length, (double) decoded / words.length, (found == 0) ? "" : " MISMATCH");
+        }
+    }
+
+    /**
+     * Generates random lowercase words of 4 to 12 letters, without duplicates and
+     * without a word that is a prefix of another, which the tree rejects.
+     */
+    private static String[] dictionary(int size, Random random) {
+        String[] words = new String[size];
+
+        for (int i = 0; i < size; i++) {
+            char[] letters = new char[4 + random.nextInt(9)];
+            for (int j = 0; j < letters.length; j++)
+                letters[j] = (char) ('a' + random.nextInt(26));
+            words[i] = new String(letters);
+        }
+        Arrays.sort(words);
+
+        // a word that is a prefix of others comes right before one of them
+        int kept = 0;
+        for (int i = 0; i < size; i++)
+            if (i == size - 1 || !words[i + 1].startsWith(words[i]))
+                words[kept++] = words[i];
+
+        return Arrays.copyOf(words, kept);
+    }
+
+    /**
+     * Returns the heap in use after a garbage collection.
+     */
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+
+        for (int i = 0; i < 3; i++)
+            System.gc();
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
@@ -1,27 +1,211 @@
 package trees.retrievalTree.trieHash;
 
+import java.util.Arrays;
+
+/*
+ * A node stands for one byte of the UTF-8 encoding of the keys, so it has at
+ * most FANOUT children, one per byte value. Children are kept in one of four
+ * layouts, chosen by how many there are:
+ * up to 4 and up to 16 in sorted key/child arrays, up to 48 in a child array
+ * reached through a byte index per byte value, and above that in a direct
+ * array of FANOUT slots. A node without children holds no array at all. The
+ * layout grows as children are added and shrinks, with some slack, as they
+ * are removed, always keeping the same node object.
+ */
 public class NodeTrie {
 
-    protected char element;
-    protected final int length = 255;
-    protected NodeTrie[] next;
+    protected static final int FANOUT = 256;
+
+    private static final int SMALL = 4, MEDIUM = 16, LARGE = 48;
+
+    protected byte element;
     protected boolean leaf;
 
+    private int count;
+    private char[] keys; // sorted byte values of the small and medium layouts
+    private byte[] index; // slot + 1 of each byte value in the large layout
+    private NodeTrie[] next;
+
     public NodeTrie() {
-        this(' ');
+        this((byte) ' ');
     }
 
-    public NodeTrie(char in) {
+    public NodeTrie(byte in) {
         this.element = in;
-        next = new NodeTrie[length];
         leaf = false;
+        count = 0;
+    }
+
+    protected static int hash(byte in) {
+        return in & 0xFF;
+    }
+
+    protected int children() {
+        return count;
+    }
+
+    protected NodeTrie child(byte in) {
+        int hash = hash(in);
+
+        if (next == null)
+            return null;
+        else if (index != null) {
+            int slot = index[hash];
+            return (slot == 0) ? null : next[slot - 1];
+        } else if (keys != null) {
+            int position = position(hash);
+            return (position >= 0) ? next[position] : null;
+        } else
+            return next[hash];
+    }
+
+    /*
+     * Adds the child of the given byte, or replaces it if there is one.
+     */
+    protected void setChild(byte in, NodeTrie child) {
+        int hash = hash(in);
+
+        if (next == null)
+            resize(SMALL);
+
+        if (keys != null) {
+            int position = position(hash);
+
+            if (position >= 0)
+                next[position] = child;
+            else if (count == keys.length) {
+                resize((count == SMALL) ? MEDIUM : LARGE);
+                setChild(in, child);
+            } else {
+                position = -position - 1;
+                System.arraycopy(keys, position, keys, position + 1, count - position);
+                System.arraycopy(next, position, next, position + 1, count - position);
+                keys[position] = (char) hash;
+                next[position] = child;
+                count++;
+            }
+        } else if (index != null) {
+            if (index[hash] != 0)
+                next[index[hash] - 1] = child;
+            else if (count == LARGE) {
+                resize(FANOUT);
+                setChild(in, child);
+            } else {
+                int slot = 0;
+                while (next[slot] != null)
+                    slot++;
 
-        for (int index = 0; index < length; index++)
-            next[index] = null;
+                next[slot] = child;
+                index[hash] = (byte) (slot + 1);
+                count++;
+            }
+        } else {
+            if (next[hash] == null)
+                count++;
+            next[hash] = child;
+        }
     }
 
-    protected static int hash(char in) {
-        return (int) in;
+    /*
+     * Removes the child of the given byte, if there is one.
+     */
+    protected void removeChild(byte in) {
+        int hash = hash(in);
+
+        if (next == null)
+            return;
+        else if (index != null) {
+            if (index[hash] == 0)
+                return;
+
+            next[index[hash] - 1] = null;
+            index[hash] = 0;
+        } else if (keys != null) {
+            int position = position(hash);
+            if (position < 0)
+                return;
+
+            System.arraycopy(keys, position + 1, keys, position, count - position - 1);
+            System.arraycopy(next, position + 1, next, position, count - position - 1);
+            next[count - 1] = null;
+        } else {
+            if (next[hash] == null)
+                return;
+
+            next[hash] = null;
+        }
+
+        count--;
+        if (count == 0)
+            resize(0);
+        else if (index == null && keys == null && count <= LARGE * 3 / 4)
+            resize(LARGE);
+        else if (index != null && count <= MEDIUM * 3 / 4)
+            resize(MEDIUM);
+        else if (keys != null && keys.length == MEDIUM && count < SMALL)
+            resize(SMALL);
+    }
+
+    /*
+     * Returns the smallest byte value above the given one that has a child, or
+     * -1 if there is none. Pass -1 to get the first one.
+     */
+    protected int nextKey(int after) {
+        if (next == null)
+            return -1;
+        else if (keys != null) {
+            for (int position = 0; position < count; position++)
+                if (keys[position] > after)
+                    return keys[position];
+        } else {
+            for (int hash = after + 1; hash < FANOUT; hash++)
+                if ((index != null) ? index[hash] != 0 : next[hash] != null)
+                    return hash;
+        }
+
+        return -1;
+    }
+
+    /*
+     * Binary search over the sorted keys: the position of the byte value, or
+     * -(insertion point) - 1 if it is absent.
+     */
+    private int position(int hash) {
+        return Arrays.binarySearch(keys, 0, count, (char) hash);
+    }
+
+    /*
+     * Moves the children to the layout of the given capacity.
+     */
+    private void resize(int capacity) {
+        char[] oldKeys = keys;
+        byte[] oldIndex = index;
+        NodeTrie[] oldNext = next;
+        int oldCount = count;
+
+        keys = null;
+        index = null;
+        next = null;
+        count = 0;
+        if (capacity == 0)
+            return;
+
+        if (capacity <= MEDIUM)
+            keys = new char[capacity];
+        else if (capacity == LARGE)
+            index = new byte[FANOUT];
+        next = new NodeTrie[capacity];
+
+        if (oldKeys != null)
+            for (int position = 0; position < oldCount; position++)
+                setChild((byte) oldKeys[position], oldNext[position]);
+        else if (oldNext != null)
+            for (int hash = 0; hash < FANOUT; hash++) {
+                NodeTrie child = (oldIndex != null) ? ((oldIndex[hash] != 0) ? oldNext[oldIndex[hash] - 1] : null)
+                        : oldNext[hash];
+                if (child != null)
+                    setChild((byte) hash, child);
+            }
     }
 
 }
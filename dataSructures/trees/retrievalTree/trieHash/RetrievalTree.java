@@ -1,5 +1,15 @@
 package trees.retrievalTree.trieHash;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/*
+ * Keys are stored as their UTF-8 bytes, one node per byte, so any String can
+ * be a key. Keys can also be given directly as byte[] or as the remaining
+ * bytes of a ByteBuffer, which are read without moving its position, so raw
+ * buffers need no decoding into a String first.
+ */
 public class RetrievalTree {
 
     protected NodeTrie root;
@@ -9,18 +19,28 @@ public class RetrievalTree {
     }
 
     public boolean search(String key) throws Exception {
+        return search(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean search(byte[] key) throws Exception {
+        return search(ByteBuffer.wrap(key));
+    }
+
+    public boolean search(ByteBuffer key) throws Exception {
         return search(key, root, 0);
     }
 
-    private boolean search(String key, NodeTrie currentNode, int i) throws Exception {
+    private boolean search(ByteBuffer key, NodeTrie currentNode, int i) throws Exception {
         boolean answer;
 
-        if (currentNode.next[key.charAt(i)] == null)
+        NodeTrie next = currentNode.child(key.get(key.position() + i));
+
+        if (next == null)
             answer = false;
-        else if (i == key.length() - 1)
-            answer = (currentNode.next[key.charAt(i)].leaf == true);
-        else if (i < key.length() - 1)
-            answer = search(key, currentNode.next[key.charAt(i)], i + 1);
+        else if (i == key.remaining() - 1)
+            answer = (next.leaf == true);
+        else if (i < key.remaining() - 1)
+            answer = search(key, next, i + 1);
         else
             throw new Exception("Er");
 
@@ -28,34 +48,92 @@ public class RetrievalTree {
     }
 
     public void insert(String in) throws Exception {
+        insert(in.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void insert(byte[] in) throws Exception {
+        insert(ByteBuffer.wrap(in));
+    }
+
+    public void insert(ByteBuffer in) throws Exception {
         insert(in, root, 0);
     }
 
-    private void insert(String key, NodeTrie currentNode, int i) throws Exception {
-        if (currentNode.next[key.charAt(i)] == null) {
-            currentNode.next[key.charAt(i)] = new NodeTrie(key.charAt(i));
+    private void insert(ByteBuffer key, NodeTrie currentNode, int i) throws Exception {
+        byte in = key.get(key.position() + i);
+        NodeTrie next = currentNode.child(in);
+
+        if (next == null) {
+            next = new NodeTrie(in);
+            currentNode.setChild(in, next);
 
-            if (i == key.length() - 1)
-                currentNode.next[key.charAt(i)].leaf = true;
+            if (i == key.remaining() - 1)
+                next.leaf = true;
             else
-                insert(key, currentNode.next[key.charAt(i)], i + 1);
-        } else if (currentNode.next[key.charAt(i)].leaf == false && i < key.length() - 1)
-            insert(key, currentNode.next[key.charAt(i)], i + 1);
+                insert(key, next, i + 1);
+        } else if (next.leaf == false && i < key.remaining() - 1)
+            insert(key, next, i + 1);
         else
             throw new Exception("Error when inserting!");
     }
 
+    public void remove(String out) throws Exception {
+        remove(out.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void remove(byte[] out) throws Exception {
+        remove(ByteBuffer.wrap(out));
+    }
+
+    public void remove(ByteBuffer out) throws Exception {
+        remove(out, root, 0);
+    }
+
+    /*
+     * Unmarks the word and drops the nodes left without words below them, so
+     * that their parents shrink to smaller layouts. Returns whether the child
+     * followed at position i was dropped.
+     */
+    private boolean remove(ByteBuffer key, NodeTrie currentNode, int i) throws Exception {
+        byte out = key.get(key.position() + i);
+        NodeTrie next = currentNode.child(out);
+
+        if (next == null)
+            throw new Exception("Error when removing!");
+        else if (i == key.remaining() - 1) {
+            if (next.leaf == false)
+                throw new Exception("Error when removing!");
+
+            next.leaf = false;
+        } else if (!remove(key, next, i + 1))
+            return false;
+
+        if (next.leaf == false && next.children() == 0) {
+            currentNode.removeChild(out);
+            return true;
+        }
+
+        return false;
+    }
+
     public void print() {
-        print("", root);
+        print(new byte[16], 0, root);
     }
 
-    private void print(String out, NodeTrie currentNode) {
+    /*
+     * The bytes of the path down to the node are kept in out and decoded once a
+     * word is complete.
+     */
+    private void print(byte[] out, int depth, NodeTrie currentNode) {
+        if (depth == out.length)
+            out = Arrays.copyOf(out, 2 * depth);
+        out[depth] = currentNode.element;
+
         if (currentNode.leaf == true)
-            System.out.println(out + currentNode.element);
+            System.out.println(new String(out, 0, depth + 1, StandardCharsets.UTF_8));
         else
-            for (int index = 0; index < currentNode.next.length; index++)
-                if (currentNode.next[index] != null)
-                    print(out + currentNode.element, currentNode.next[index]);
+            for (int index = currentNode.nextKey(-1); index >= 0; index = currentNode.nextKey(index))
+                print(out, depth + 1, currentNode.child((byte) index));
     }
 
     public NodeTrie intersect(NodeTrie first, NodeTrie second) {
@@ -65,9 +143,12 @@ public class RetrievalTree {
         NodeTrie answer = new NodeTrie(first.element);
         answer.leaf = first.leaf && second.leaf;
 
-        for (int index = 0; index < first.next.length; index++)
-            if (first.next[index] != null && second.next[index] != null)
-                answer.next[index] = intersect(first.next[index], second.next[index]);
+        for (int index = first.nextKey(-1); index >= 0; index = first.nextKey(index)) {
+            NodeTrie secondNext = second.child((byte) index);
+
+            if (secondNext != null)
+                answer.setChild((byte) index, intersect(first.child((byte) index), secondNext));
+        }
 
         return answer;
     }
@@ -81,44 +162,46 @@ public class RetrievalTree {
 
         first.leaf = first.leaf || second.leaf;
 
-        for (int index = 0; index < second.next.length; index++) {
-            if (second.next[index] != null)
-                if (first.next[index] == null) {
-                    if (!containsKey(second.next[index].element, first)) {
-                        first.next[index] = new NodeTrie(second.next[index].element);
-                        merge(first.next[index], second.next[index]);
-                    }
-                } else
-                    merge(first.next[index], second.next[index]);
+        for (int index = second.nextKey(-1); index >= 0; index = second.nextKey(index)) {
+            NodeTrie firstNext = first.child((byte) index), secondNext = second.child((byte) index);
+
+            if (firstNext == null) {
+                if (!containsKey(secondNext.element, first)) {
+                    firstNext = new NodeTrie(secondNext.element);
+                    first.setChild((byte) index, firstNext);
+                    merge(firstNext, secondNext);
+                }
+            } else
+                merge(firstNext, secondNext);
         }
 
         return first;
     }
 
-    private boolean containsKey(char in, NodeTrie currentNode) {
+    private boolean containsKey(byte in, NodeTrie currentNode) {
         if (currentNode.element == in && currentNode.leaf)
             return true;
 
-        for (int index = 0; index < currentNode.next.length; index++)
-            if (currentNode.next[index] != null)
-                if (containsKey(in, currentNode.next[index]))
-                    return true;
+        for (int index = currentNode.nextKey(-1); index >= 0; index = currentNode.nextKey(index))
+            if (containsKey(in, currentNode.child((byte) index)))
+                return true;
 
         return false;
     }
 
     public boolean containsKey(String key, NodeTrie root) {
         NodeTrie currentNode = root;
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
 
-        for (int i = 0; i < key.length(); i++) {
-            char c = key.charAt(i);
+        for (int i = 0; i < bytes.length; i++) {
+            byte c = bytes[i];
 
             if (!containsKey(c, currentNode))
                 return false;
             else {
-                for (int index = 0; index < currentNode.next.length; index++)
-                    if (currentNode.next[index] != null && currentNode.next[index].element == c) {
-                        currentNode = currentNode.next[index];
+                for (int index = currentNode.nextKey(-1); index >= 0; index = currentNode.nextKey(index))
+                    if (currentNode.child((byte) index).element == c) {
+                        currentNode = currentNode.child((byte) index);
                         break;
                     }
             }